@@ -0,0 +1,23 @@
+package mate.academy.intro.config;
+
+import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.repository.book.BookSearchPlan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    public static final String BOOKS = "books";
+    public static final String BOOKS_BY_CATEGORY = "booksByCategory";
+    public static final String BOOK_PAGES = "bookPages";
+    public static final String BOOK_SEARCH_FACETS = "bookSearchFacets";
+    public static final String BOOK_SEARCH_PLAN_KEY_GENERATOR = "bookSearchPlanKeyGenerator";
+
+    @Bean(BOOK_SEARCH_PLAN_KEY_GENERATOR)
+    public KeyGenerator bookSearchPlanKeyGenerator() {
+        return (target, method, params) -> BookSearchPlan.of((BookSearchParametersDto) params[0]);
+    }
+}
@@ -0,0 +1,22 @@
+package mate.academy.intro.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportConfig {
+    @Bean
+    public ThreadPoolTaskExecutor bookImportExecutor(
+            @Value("${book.import.threads:2}") int threads,
+            @Value("${book.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("book-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,34 @@
+package mate.academy.intro.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import mate.academy.intro.retry.ConflictRetryInterceptor;
+import mate.academy.intro.retry.RetryOnConflict;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class RetryConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static DefaultPointcutAdvisor conflictRetryAdvisor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${book.retry.max-attempts:4}") int maxAttempts,
+            @Value("${book.retry.initial-backoff:20ms}") Duration initialBackoff,
+            @Value("${book.retry.max-backoff:500ms}") Duration maxBackoff) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forClassAnnotation(RetryOnConflict.class),
+                new ConflictRetryInterceptor(meterRegistry, maxAttempts, initialBackoff,
+                        maxBackoff));
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
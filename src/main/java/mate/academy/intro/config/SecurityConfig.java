@@ -47,6 +47,8 @@ public class SecurityConfig {
                                 .requestMatchers("/auth/**", "/error",
                                         "/swagger-ui/**", "/v3/api-docs/**")
                                 .permitAll()
+                                .requestMatchers("/actuator/**")
+                                .hasRole("ADMIN")
                                 .anyRequest()
                                 .authenticated()
                 )
@@ -1,16 +1,33 @@
 package mate.academy.intro.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookBatchRequestDto;
+import mate.academy.intro.dto.BookBatchResultDto;
 import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.BookImportJobDto;
 import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.dto.BookSearchResultDto;
+import mate.academy.intro.dto.BookSuggestionDto;
 import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.dto.CursorPageDto;
+import mate.academy.intro.exception.PreconditionFailedException;
+import mate.academy.intro.repository.book.BookSortKey;
+import mate.academy.intro.service.BookBatchService;
+import mate.academy.intro.service.BookImportService;
 import mate.academy.intro.service.BookService;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,16 +35,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Books API")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/books")
 public class BookController {
+    private static final String ANY_ETAG = "*";
+    private static final String NDJSON_VALUE = "application/x-ndjson";
     private final BookService bookService;
+    private final BookBatchService bookBatchService;
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @PreAuthorize("hasRole('USER')")
@@ -36,12 +63,31 @@ public class BookController {
         return bookService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Get books by cursor",
+            description = "Get a page of books after the given cursor; pass an empty cursor "
+                    + "to start from the beginning. Sort by id, title or price")
+    public CursorPageDto<BookDto> findAllByCursor(@RequestParam String after,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  @RequestParam(defaultValue = "id")
+                                                  String sort) {
+        return bookService.findAll(after, size, BookSortKey.fromParameter(sort));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Get a book by its ID",
             description = "Get detailed information about a specific book by its ID")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.getBookById(id);
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest request) {
+        String etag = toEtag(bookService.getVersion(id));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        BookDto book = bookService.getBookById(id);
+        return ResponseEntity.ok()
+                .eTag(toEtag(book.getVersion()))
+                .body(book);
     }
 
     @PostMapping
@@ -56,9 +102,14 @@ public class BookController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update an existing book",
             description = "Update the information of an existing book")
-    public BookDto updateBook(@PathVariable Long id,
-                              @RequestBody CreateBookRequestDto updatedBook) {
-        return bookService.updateBook(id, updatedBook);
+    public ResponseEntity<BookDto> updateBook(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                      required = false) String ifMatch,
+                                              @RequestBody CreateBookRequestDto updatedBook) {
+        BookDto book = bookService.updateBook(id, updatedBook, fromEtag(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(toEtag(book.getVersion()))
+                .body(book);
     }
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -71,8 +122,135 @@ public class BookController {
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Search books", description = "Search for books by parameters")
-    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters) {
-        return bookService.search(searchParameters);
+    @Operation(summary = "Search books",
+            description = "Search for books by parameters, at most 100 per page")
+    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters,
+                                     Pageable pageable) {
+        return bookService.search(searchParameters, pageable);
+    }
+
+    @GetMapping(value = "/search", params = {"facets=true", "!after", "!q"})
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Search books with facets",
+            description = "Search for books by parameters with per-category and per-author "
+                    + "counts over all matches")
+    public BookSearchResultDto searchBooksWithFacets(BookSearchParametersDto searchParameters,
+                                                     Pageable pageable) {
+        return new BookSearchResultDto(bookService.search(searchParameters, pageable),
+                bookService.getSearchFacets(searchParameters));
+    }
+
+    @GetMapping(value = "/search", params = {"after", "!q"})
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Search books by cursor",
+            description = "Search for books by parameters, a page after the given cursor")
+    public CursorPageDto<BookDto> searchBooksByCursor(BookSearchParametersDto searchParameters,
+                                                      @RequestParam String after,
+                                                      @RequestParam(defaultValue = "20")
+                                                      int size,
+                                                      @RequestParam(defaultValue = "id")
+                                                      String sort) {
+        return bookService.search(searchParameters, after, size, BookSortKey.fromParameter(sort));
+    }
+
+    @GetMapping(value = "/search/stream", produces = NDJSON_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Stream search results",
+            description = "Stream every matching book as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamSearchBooks(
+            BookSearchParametersDto searchParameters) {
+        return ndjson(pageConsumer ->
+                bookService.forEachSearchPage(searchParameters, pageConsumer));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export the catalog",
+            description = "Stream every book as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        return ndjson(bookService::exportCatalog);
+    }
+
+    @GetMapping(value = "/search", params = "q")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Full-text search books",
+            description = "Search titles, authors and descriptions, best matches first")
+    public List<BookDto> searchBooksByText(@RequestParam String q,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return bookService.search(q, size);
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Suggest titles and authors",
+            description = "Get the most popular titles and authors starting with the prefix")
+    public List<BookSuggestionDto> suggest(@RequestParam String q,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(q, limit);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create, update and delete books in one batch",
+            description = "Apply up to 500 operations in one transaction and get a result "
+                    + "for each of them")
+    public List<BookBatchResultDto> applyBatch(
+            @RequestBody @Valid BookBatchRequestDto requestDto) {
+        return bookBatchService.apply(requestDto.operations());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Import books",
+            description = "Start a background import of a CSV or NDJSON file of books. "
+                    + "Returns 503 with Retry-After when the import queue is full")
+    public BookImportJobDto importBooks(@RequestParam("file") MultipartFile file) {
+        return bookImportService.startImport(file);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get import progress",
+            description = "Get progress and errors of a book import job")
+    public BookImportJobDto getImportJob(@PathVariable String jobId) {
+        return bookImportService.getJob(jobId);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(
+            Consumer<Consumer<List<BookDto>>> producer) {
+        StreamingResponseBody body = outputStream -> producer.accept(books -> {
+            try {
+                for (BookDto book : books) {
+                    outputStream.write(objectMapper.writeValueAsBytes(book));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    private String toEtag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    private Long fromEtag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY_ETAG.equals(ifMatch.trim())) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a strong ETag: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Unknown ETag: " + ifMatch);
+        }
     }
 }
@@ -7,6 +7,8 @@ import lombok.RequiredArgsConstructor;
 import mate.academy.intro.dto.BookDto;
 import mate.academy.intro.dto.CategoryDto;
 import mate.academy.intro.dto.CreateCategoryRequestDto;
+import mate.academy.intro.dto.CursorPageDto;
+import mate.academy.intro.repository.book.BookSortKey;
 import mate.academy.intro.service.BookService;
 import mate.academy.intro.service.CategoryService;
 import org.springframework.data.domain.Page;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -75,8 +78,21 @@ public class CategoryController {
 
     @GetMapping("/{id}/books")
     @Operation(summary = "Get books by category ID",
-            description = "Get a list of books from a specific category by its ID")
-    public List<BookDto> getBooksByCategoryId(@PathVariable Long id) {
-        return bookService.findBooksByCategoryId(id);
+            description = "Get a page of books from a specific category by its ID")
+    public List<BookDto> getBooksByCategoryId(@PathVariable Long id, Pageable pageable) {
+        return bookService.findBooksByCategoryId(id, pageable);
+    }
+
+    @GetMapping(value = "/{id}/books", params = "after")
+    @Operation(summary = "Get books by category ID and cursor",
+            description = "Get a page of books from a specific category after the given "
+                    + "cursor; pass an empty cursor to start from the beginning")
+    public CursorPageDto<BookDto> getBooksByCategoryIdByCursor(
+            @PathVariable Long id,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        return bookService.findBooksByCategoryId(id, after, size,
+                BookSortKey.fromParameter(sort));
     }
 }
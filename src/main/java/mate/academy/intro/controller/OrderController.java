@@ -10,6 +10,7 @@ import mate.academy.intro.dto.OrderResponseDto;
 import mate.academy.intro.dto.UpdateOrderStatusRequestDto;
 import mate.academy.intro.model.User;
 import mate.academy.intro.service.OrderService;
+import mate.academy.intro.service.idempotency.IdempotentOrderService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +20,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,16 +28,25 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/order")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
 
     @PostMapping
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Place an order",
-            description = "Place an order based on items in the shopping cart")
+            description = "Place an order based on items in the shopping cart. "
+                    + "A repeated Idempotency-Key returns the original order")
     public OrderResponseDto placeOrder(@Valid @RequestBody OrderRequestDto orderRequestDto,
+                                       @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                       String idempotencyKey,
                                        Authentication authentication) {
         User userId = (User) authentication.getPrincipal();
-        return orderService.placeOrder(orderRequestDto, userId.getId());
+        if (idempotencyKey == null) {
+            return orderService.placeOrder(orderRequestDto, userId.getId());
+        }
+        return idempotentOrderService.placeOrder(orderRequestDto, userId.getId(),
+                idempotencyKey);
     }
 
     @GetMapping("/order")
@@ -2,7 +2,10 @@ package mate.academy.intro.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.CartBatchRequestDto;
+import mate.academy.intro.dto.CartDeltaDto;
 import mate.academy.intro.dto.CartItemRequestDto;
 import mate.academy.intro.dto.ShoppingCartDto;
 import mate.academy.intro.dto.UpdateCartItemDto;
@@ -10,22 +13,28 @@ import mate.academy.intro.model.User;
 import mate.academy.intro.service.ShoppingCartService;
 import mate.academy.intro.service.UserService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/cart")
 public class ShoppingCartController {
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
     private final ShoppingCartService shoppingCartService;
     private final UserService userService;
 
@@ -39,35 +48,80 @@ public class ShoppingCartController {
 
     @PostMapping
     @PreAuthorize("hasRole('USER')")
-    @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Add book to cart", description = "Add book to the shopping cart")
-    public ShoppingCartDto addItemToCart(Authentication authentication,
+    @Operation(summary = "Add book to cart", description = "Add book to the shopping cart. "
+            + "With Prefer: return=minimal or minimal=true only the changed item is returned")
+    public ResponseEntity<?> addItemToCart(Authentication authentication,
+                              @RequestHeader(value = PREFER, required = false) String prefer,
+                              @RequestParam(defaultValue = "false") boolean minimal,
                               @RequestBody @Valid CartItemRequestDto cartItemRequestDto) {
         User user = (User) authentication.getPrincipal();
-        return shoppingCartService.addItemToCart(user.getId(), cartItemRequestDto);
+        if (isMinimal(prefer, minimal)) {
+            return minimalResponse(HttpStatus.CREATED,
+                    shoppingCartService.addItemToCartDelta(user.getId(), cartItemRequestDto));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(shoppingCartService.addItemToCart(user.getId(), cartItemRequestDto));
+    }
+
+    @PatchMapping
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Edit cart in one batch",
+            description = "Apply an ordered list of add, set-quantity and remove operations "
+                    + "in one transaction")
+    public ShoppingCartDto applyOperations(Authentication authentication,
+                              @RequestBody @Valid CartBatchRequestDto requestDto) {
+        User user = (User) authentication.getPrincipal();
+        return shoppingCartService.applyOperations(user.getId(), requestDto.operations());
     }
 
     @PutMapping("/cart-items/{cartItemId}")
-    @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Update item",
-                  description = "Update the number of books in the shopping cart")
-    public ShoppingCartDto updateItemQuantity(Authentication authentication,
+                  description = "Update the number of books in the shopping cart. "
+                          + "With Prefer: return=minimal or minimal=true only the changed "
+                          + "item is returned")
+    public ResponseEntity<?> updateItemQuantity(Authentication authentication,
+                                   @RequestHeader(value = PREFER, required = false) String prefer,
+                                   @RequestParam(defaultValue = "false") boolean minimal,
                                    @PathVariable Long cartItemId,
                                    @RequestBody @Valid UpdateCartItemDto updateCartItemDto) {
         User user = (User) authentication.getPrincipal();
-        return shoppingCartService.updateItemQuantity(user.getId(),
+        if (isMinimal(prefer, minimal)) {
+            return minimalResponse(HttpStatus.OK, shoppingCartService
+                    .updateItemQuantityDelta(user.getId(), cartItemId, updateCartItemDto));
+        }
+        return ResponseEntity.ok(shoppingCartService.updateItemQuantity(user.getId(),
                 cartItemId,
-                updateCartItemDto);
+                updateCartItemDto));
     }
 
     @DeleteMapping("/cart-items/{cartItemId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasRole('USER')")
-    @Operation(summary = "Delete item", description = "Remove a book from the shopping cart")
-    public void deleteItem(Authentication authentication,
+    @Operation(summary = "Delete item", description = "Remove a book from the shopping cart. "
+            + "With Prefer: return=minimal or minimal=true the removed item is returned")
+    public ResponseEntity<?> deleteItem(Authentication authentication,
+                           @RequestHeader(value = PREFER, required = false) String prefer,
+                           @RequestParam(defaultValue = "false") boolean minimal,
                            @PathVariable Long cartItemId) {
         User user = (User) authentication.getPrincipal();
+        if (isMinimal(prefer, minimal)) {
+            return minimalResponse(HttpStatus.OK,
+                    shoppingCartService.removeItemDelta(cartItemId, user.getId()));
+        }
         shoppingCartService.removeItem(cartItemId, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean isMinimal(String prefer, boolean minimal) {
+        return minimal || prefer != null && Arrays.stream(prefer.split(","))
+                .map(String::trim)
+                .anyMatch(RETURN_MINIMAL::equalsIgnoreCase);
+    }
+
+    private ResponseEntity<CartDeltaDto> minimalResponse(HttpStatus status,
+                                                         CartDeltaDto cartDeltaDto) {
+        return ResponseEntity.status(status)
+                .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                .body(cartDeltaDto);
     }
 }
@@ -0,0 +1,10 @@
+package mate.academy.intro.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record BookBatchOperationDto(@NotNull BookBatchOperationType type,
+                                    Long id,
+                                    Long version,
+                                    @Valid CreateBookRequestDto book) {
+}
@@ -0,0 +1,7 @@
+package mate.academy.intro.dto;
+
+public enum BookBatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
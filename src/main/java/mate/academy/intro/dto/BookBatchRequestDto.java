@@ -0,0 +1,10 @@
+package mate.academy.intro.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BookBatchRequestDto(@NotEmpty @Size(max = 500)
+                                  List<@Valid BookBatchOperationDto> operations) {
+}
@@ -0,0 +1,9 @@
+package mate.academy.intro.dto;
+
+public record BookBatchResultDto(int index,
+                                 BookBatchOperationType type,
+                                 Long id,
+                                 int status,
+                                 String message,
+                                 BookDto book) {
+}
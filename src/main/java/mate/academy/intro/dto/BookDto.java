@@ -1,5 +1,6 @@
 package mate.academy.intro.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -18,4 +19,6 @@ public class BookDto {
     private String description;
     private String coverImage;
     private List<Long> categoryIds;
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,16 @@
+package mate.academy.intro.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import mate.academy.intro.service.importer.ImportJobStatus;
+
+public record BookImportJobDto(String id,
+                               String fileName,
+                               ImportJobStatus status,
+                               long processed,
+                               long imported,
+                               long failed,
+                               List<BookImportErrorDto> errors,
+                               LocalDateTime startedAt,
+                               LocalDateTime finishedAt) {
+}
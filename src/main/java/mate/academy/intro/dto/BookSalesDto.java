@@ -0,0 +1,4 @@
+package mate.academy.intro.dto;
+
+public record BookSalesDto(Long bookId, Long quantity) {
+}
@@ -0,0 +1,7 @@
+package mate.academy.intro.dto;
+
+import java.util.List;
+
+public record BookSearchFacetsDto(List<CategoryFacetDto> categories,
+                                  List<AuthorFacetDto> authors) {
+}
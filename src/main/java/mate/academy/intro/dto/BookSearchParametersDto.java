@@ -1,4 +1,8 @@
 package mate.academy.intro.dto;
 
-public record BookSearchParametersDto(String[] title, String[] author, String[] isbn) {
+import java.math.BigDecimal;
+
+public record BookSearchParametersDto(String[] title, String[] author, String[] isbn,
+                                      BigDecimal minPrice, BigDecimal maxPrice,
+                                      Long[] categoryIds) {
 }
@@ -0,0 +1,6 @@
+package mate.academy.intro.dto;
+
+import mate.academy.intro.search.SuggestionType;
+
+public record BookSuggestionDto(String text, SuggestionType type) {
+}
@@ -0,0 +1,6 @@
+package mate.academy.intro.dto;
+
+public record CartDeltaDto(CartItemDto item,
+                           long cartVersion,
+                           long itemCount) {
+}
@@ -0,0 +1,22 @@
+package mate.academy.intro.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CartOperationDto(@NotNull CartOperationType type,
+                               @Positive Long bookId,
+                               @Positive Long cartItemId,
+                               @Positive Integer quantity) {
+    @AssertTrue(message = "ADD needs bookId and quantity, SET_QUANTITY needs cartItemId and "
+            + "quantity, REMOVE needs cartItemId")
+    public boolean isComplete() {
+        if (type == CartOperationType.ADD) {
+            return bookId != null && quantity != null;
+        }
+        if (type == CartOperationType.SET_QUANTITY) {
+            return cartItemId != null && quantity != null;
+        }
+        return type == null || cartItemId != null;
+    }
+}
@@ -0,0 +1,7 @@
+package mate.academy.intro.dto;
+
+public enum CartOperationType {
+    ADD,
+    SET_QUANTITY,
+    REMOVE
+}
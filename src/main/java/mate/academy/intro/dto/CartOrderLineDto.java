@@ -0,0 +1,6 @@
+package mate.academy.intro.dto;
+
+import java.math.BigDecimal;
+
+public record CartOrderLineDto(Long bookId, int quantity, BigDecimal price) {
+}
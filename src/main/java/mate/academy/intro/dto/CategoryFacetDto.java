@@ -0,0 +1,4 @@
+package mate.academy.intro.dto;
+
+public record CategoryFacetDto(Long categoryId, String name, Long count) {
+}
@@ -0,0 +1,6 @@
+package mate.academy.intro.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package mate.academy.intro.dto;
+
+public record OrderItemWithOrderIdDto(Long orderId, Long id, int quantity, Long bookId) {
+}
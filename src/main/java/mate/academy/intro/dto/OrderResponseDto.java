@@ -3,8 +3,12 @@ package mate.academy.intro.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import mate.academy.intro.model.Status;
 
+@Data
+@NoArgsConstructor
 public class OrderResponseDto {
     private Long id;
     private String shippingAddress;
@@ -12,4 +16,13 @@ public class OrderResponseDto {
     private Status status;
     private BigDecimal total;
     private List<OrderItemResponseDto> orderItems;
+
+    public OrderResponseDto(Long id, String shippingAddress, LocalDateTime orderDate,
+                            Status status, BigDecimal total) {
+        this.id = id;
+        this.shippingAddress = shippingAddress;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.total = total;
+    }
 }
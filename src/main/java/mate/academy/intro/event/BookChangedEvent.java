@@ -0,0 +1,20 @@
+package mate.academy.intro.event;
+
+import java.util.List;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+
+public record BookChangedEvent(Long bookId, BookDtoWithoutCategoryIds book,
+                               List<Long> categoryIds) {
+    public static BookChangedEvent saved(Long bookId, BookDtoWithoutCategoryIds book,
+                                         List<Long> categoryIds) {
+        return new BookChangedEvent(bookId, book, categoryIds);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null, List.of());
+    }
+
+    public boolean isDeleted() {
+        return book == null;
+    }
+}
@@ -0,0 +1,16 @@
+package mate.academy.intro.exception;
+
+import java.time.Duration;
+
+public class ImportQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ImportQueueFullException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
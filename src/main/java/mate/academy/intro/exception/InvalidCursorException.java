@@ -0,0 +1,7 @@
+package mate.academy.intro.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
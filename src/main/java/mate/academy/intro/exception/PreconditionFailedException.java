@@ -0,0 +1,7 @@
+package mate.academy.intro.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
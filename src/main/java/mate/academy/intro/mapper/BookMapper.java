@@ -19,12 +19,17 @@ public interface BookMapper {
     @Mapping(target = "categoryIds", source = "categories", qualifiedByName = "categoriesToIds")
     BookDto bookToBookDto(Book book);
 
+    @Mapping(target = "version", ignore = true)
     Book toModel(CreateBookRequestDto requestDto);
 
+    @Mapping(target = "version", ignore = true)
     Book updateBook(@MappingTarget Book book, CreateBookRequestDto bookDto);
 
     BookDtoWithoutCategoryIds toDtoWithoutCategories(Book book);
 
+    @Mapping(target = "version", ignore = true)
+    BookDto toBookDto(BookDtoWithoutCategoryIds book, List<Long> categoryIds);
+
     @Named("bookFromId")
     default Book bookFromId(Long id) {
         Book book = new Book();
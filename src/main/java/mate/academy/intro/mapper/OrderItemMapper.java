@@ -2,10 +2,15 @@ package mate.academy.intro.mapper;
 
 import mate.academy.intro.config.MapperConfig;
 import mate.academy.intro.dto.OrderItemResponseDto;
+import mate.academy.intro.dto.OrderItemWithOrderIdDto;
 import mate.academy.intro.model.OrderItem;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(config = MapperConfig.class)
 public interface OrderItemMapper {
+    @Mapping(source = "book.id", target = "bookId")
     OrderItemResponseDto toOrderItemDto(OrderItem orderItem);
+
+    OrderItemResponseDto toOrderItemDto(OrderItemWithOrderIdDto orderItem);
 }
@@ -9,6 +9,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
@@ -20,12 +22,15 @@ import org.hibernate.annotations.SQLRestriction;
 @Entity
 @Getter
 @Setter
-@SQLDelete(sql = "UPDATE books SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE books SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP "
+        + "WHERE id=? AND version=?")
 @SQLRestriction(value = "is_deleted=false")
 @Table(name = "books")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "books_id")
+    @TableGenerator(name = "books_id", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "books", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -46,6 +51,10 @@ public class Book {
     @Column(nullable = false, columnDefinition = "TINYINT")
     private boolean isDeleted = false;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToMany
     @JoinTable(
             name = "books_categories",
@@ -10,6 +10,7 @@ import jakarta.persistence.MapsId;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.Getter;
@@ -20,7 +21,8 @@ import org.hibernate.annotations.SQLRestriction;
 @Entity
 @Getter
 @Setter
-@SQLDelete(sql = "UPDATE shopping_cart SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE shopping_carts SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP "
+        + "WHERE id=? AND version=?")
 @SQLRestriction(value = "is_deleted=false")
 @Table(name = "shopping_carts")
 public class ShoppingCart {
@@ -35,6 +37,10 @@ public class ShoppingCart {
     @OneToMany(mappedBy = "shoppingCart", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<CartItem> cartItems = new HashSet<>();
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, name = "is_deleted", columnDefinition = "TINYINT(1)")
     private boolean isDeleted = false;
 }
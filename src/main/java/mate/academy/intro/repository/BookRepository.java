@@ -1,16 +1,72 @@
 package mate.academy.intro.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import mate.academy.intro.dto.BookCategoryIdDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
 import mate.academy.intro.model.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookRepositoryCustom {
 
-    List<Book> findAllByCategoriesId(Long categoryId);
+    @Query("""
+            SELECT new mate.academy.intro.dto.BookDtoWithoutCategoryIds(b.id, b.title, b.author,
+            b.description, b.price, b.isbn, b.coverImage)
+            FROM Book b JOIN b.categories c WHERE c.id = :categoryId""")
+    List<BookDtoWithoutCategoryIds> findRowsByCategoryId(Long categoryId, Pageable pageable);
 
     @Query("SELECT b FROM Book b LEFT JOIN FETCH b.categories WHERE b.id = :id")
     Optional<Book> findByIdWithCategory(Long id);
+
+    @Query("SELECT b.version FROM Book b WHERE b.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("SELECT c.id FROM Book b JOIN b.categories c WHERE b.id = :id")
+    List<Long> findCategoryIdsById(Long id);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.BookDtoWithoutCategoryIds(b.id, b.title, b.author,
+            b.description, b.price, b.isbn, b.coverImage)
+            FROM Book b""")
+    List<BookDtoWithoutCategoryIds> findRows(Pageable pageable);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.BookDtoWithoutCategoryIds(b.id, b.title, b.author,
+            b.description, b.price, b.isbn, b.coverImage)
+            FROM Book b WHERE b.id IN :ids""")
+    List<BookDtoWithoutCategoryIds> findRowsByIdIn(Collection<Long> ids);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.BookCategoryIdDto(b.id, c.id)
+            FROM Book b JOIN b.categories c WHERE b.id IN :bookIds ORDER BY c.id""")
+    List<BookCategoryIdDto> findCategoryIdsByBookIdIn(Collection<Long> bookIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.categories WHERE b.id IN :ids")
+    List<Book> findAllWithCategoriesByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE books SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP, "
+            + "version = version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int softDeleteByIdIn(Collection<Long> ids);
 }
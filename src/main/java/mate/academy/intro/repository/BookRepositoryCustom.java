@@ -0,0 +1,20 @@
+package mate.academy.intro.repository;
+
+import java.util.List;
+import mate.academy.intro.dto.AuthorFacetDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.CategoryFacetDto;
+import mate.academy.intro.model.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookRepositoryCustom {
+    List<BookDtoWithoutCategoryIds> findRows(Specification<Book> specification,
+                                             Pageable pageable);
+
+    List<BookDtoWithoutCategoryIds> findRowsAfter(Long lastId, int limit);
+
+    List<CategoryFacetDto> countByCategory(Specification<Book> specification, int limit);
+
+    List<AuthorFacetDto> countByAuthor(Specification<Book> specification, int limit);
+}
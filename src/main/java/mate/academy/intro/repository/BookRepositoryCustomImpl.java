@@ -0,0 +1,97 @@
+package mate.academy.intro.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.AuthorFacetDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.CategoryFacetDto;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Category;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findRows(Specification<Book> specification,
+                                                    Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookDtoWithoutCategoryIds> query =
+                criteriaBuilder.createQuery(BookDtoWithoutCategoryIds.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(criteriaBuilder.construct(BookDtoWithoutCategoryIds.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("author"),
+                root.get("description"),
+                root.get("price"),
+                root.get("isbn"),
+                root.get("coverImage")));
+        applyPredicate(specification, root, query, criteriaBuilder);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        TypedQuery<BookDtoWithoutCategoryIds> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findRowsAfter(Long lastId, int limit) {
+        Specification<Book> afterId = (root, query, criteriaBuilder) ->
+                criteriaBuilder.gt(root.get("id"), lastId);
+        return findRows(afterId, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    @Override
+    public List<CategoryFacetDto> countByCategory(Specification<Book> specification,
+                                                  int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CategoryFacetDto> query =
+                criteriaBuilder.createQuery(CategoryFacetDto.class);
+        Root<Book> root = query.from(Book.class);
+        Join<Book, Category> category = root.join("categories");
+        Expression<Long> count = criteriaBuilder.countDistinct(root);
+        query.select(criteriaBuilder.construct(CategoryFacetDto.class,
+                category.get("id"), category.get("name"), count));
+        applyPredicate(specification, root, query, criteriaBuilder);
+        query.groupBy(category.get("id"), category.get("name"));
+        query.orderBy(criteriaBuilder.desc(count), criteriaBuilder.asc(category.get("name")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<AuthorFacetDto> countByAuthor(Specification<Book> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuthorFacetDto> query = criteriaBuilder.createQuery(AuthorFacetDto.class);
+        Root<Book> root = query.from(Book.class);
+        Expression<Long> count = criteriaBuilder.countDistinct(root);
+        query.select(criteriaBuilder.construct(AuthorFacetDto.class, root.get("author"), count));
+        applyPredicate(specification, root, query, criteriaBuilder);
+        query.groupBy(root.get("author"));
+        query.orderBy(criteriaBuilder.desc(count), criteriaBuilder.asc(root.get("author")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private void applyPredicate(Specification<Book> specification, Root<Book> root,
+                                CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
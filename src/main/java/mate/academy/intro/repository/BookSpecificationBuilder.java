@@ -1,8 +1,10 @@
 package mate.academy.intro.repository;
 
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import mate.academy.intro.dto.BookSearchParametersDto;
 import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.book.BookSearchPlan;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
@@ -12,26 +14,37 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
     private static final String TITLE_COLUMN = "title";
     private static final String AUTHOR_COLUMN = "author";
     private static final String ISBN_COLUMN = "isbn";
+    private static final String MIN_PRICE_KEY = "minPrice";
+    private static final String MAX_PRICE_KEY = "maxPrice";
+    private static final String CATEGORY_IDS_KEY = "categoryIds";
     private final SpecificationProviderManager<Book> bookSpecificationProviderManager;
 
     @Override
     public Specification<Book> build(BookSearchParametersDto searchParameters) {
+        BookSearchPlan plan = BookSearchPlan.of(searchParameters);
         Specification<Book> specification = Specification.where(null);
-        if (searchParameters.author() != null && searchParameters.author().length > 0) {
-            specification = specification
-                    .and(bookSpecificationProviderManager.getSpecificationProvider(AUTHOR_COLUMN)
-                    .getSpecification(searchParameters.author()));
+        specification = and(specification, AUTHOR_COLUMN, plan.authors());
+        specification = and(specification, TITLE_COLUMN, plan.titles());
+        specification = and(specification, ISBN_COLUMN, plan.isbns());
+        if (plan.minPrice() != null) {
+            specification = and(specification, MIN_PRICE_KEY,
+                    List.of(plan.minPrice().toPlainString()));
         }
-        if (searchParameters.title() != null && searchParameters.title().length > 0) {
-            specification = specification
-                    .and(bookSpecificationProviderManager.getSpecificationProvider(TITLE_COLUMN)
-                    .getSpecification(searchParameters.title()));
+        if (plan.maxPrice() != null) {
+            specification = and(specification, MAX_PRICE_KEY,
+                    List.of(plan.maxPrice().toPlainString()));
         }
-        if ((searchParameters.isbn() != null) && (searchParameters.isbn().length > 0)) {
-            specification = specification
-                    .and(bookSpecificationProviderManager.getSpecificationProvider(ISBN_COLUMN)
-                    .getSpecification(searchParameters.isbn()));
+        return and(specification, CATEGORY_IDS_KEY, plan.categoryIds().stream()
+                .map(String::valueOf)
+                .toList());
+    }
+
+    private Specification<Book> and(Specification<Book> specification, String key,
+                                    List<String> params) {
+        if (params.isEmpty()) {
+            return specification;
         }
-        return specification;
+        return specification.and(bookSpecificationProviderManager.getSpecificationProvider(key)
+                .getSpecification(params.toArray(String[]::new)));
     }
 }
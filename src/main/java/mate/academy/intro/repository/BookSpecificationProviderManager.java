@@ -1,22 +1,30 @@
 package mate.academy.intro.repository;
 
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import mate.academy.intro.model.Book;
 import org.springframework.stereotype.Component;
 
-@RequiredArgsConstructor
 @Component
 public class BookSpecificationProviderManager implements SpecificationProviderManager<Book> {
-    private final List<SpecificationProvider<Book>> bookSpecificationProviders;
+    private final Map<String, SpecificationProvider<Book>> bookSpecificationProviders;
+
+    public BookSpecificationProviderManager(
+            List<SpecificationProvider<Book>> bookSpecificationProviders) {
+        this.bookSpecificationProviders = bookSpecificationProviders.stream()
+                .collect(Collectors.toUnmodifiableMap(SpecificationProvider::getKey,
+                        Function.identity()));
+    }
 
     @Override
     public SpecificationProvider<Book> getSpecificationProvider(String key) {
-        return bookSpecificationProviders.stream()
-                .filter(p -> p.getKey().equals(key))
-                .findFirst()
-                .orElseThrow(() ->
-                        new RuntimeException("Can not find correct specification provider for key"
-                                + key));
+        SpecificationProvider<Book> provider = bookSpecificationProviders.get(key);
+        if (provider == null) {
+            throw new RuntimeException("Can not find correct specification provider for key"
+                    + key);
+        }
+        return provider;
     }
 }
@@ -1,10 +1,44 @@
 package mate.academy.intro.repository;
 
+import java.util.List;
 import java.util.Optional;
+import mate.academy.intro.dto.CartOrderLineDto;
 import mate.academy.intro.model.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
+    @EntityGraph(attributePaths = "book")
     Optional<CartItem> findByIdAndShoppingCartId(Long id, Long shoppingCartId);
+
+    @EntityGraph(attributePaths = "book")
+    Optional<CartItem> findByShoppingCartIdAndBookId(Long shoppingCartId, Long bookId);
+
+    long countByShoppingCartId(Long shoppingCartId);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.CartOrderLineDto(b.id, ci.quantity, b.price)
+            FROM CartItem ci JOIN ci.book b WHERE ci.shoppingCart.id = :shoppingCartId""")
+    List<CartOrderLineDto> findOrderLinesByShoppingCartId(Long shoppingCartId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.shoppingCart.id = :shoppingCartId")
+    int deleteByShoppingCartId(Long shoppingCartId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity, is_deleted)
+            SELECT :id, sc.id, b.id, :quantity, false
+            FROM shopping_carts sc JOIN books b ON b.id = :bookId AND b.is_deleted = false
+            WHERE sc.user_id = :userId AND sc.is_deleted = false
+            ON DUPLICATE KEY UPDATE
+            quantity = CASE WHEN cart_items.is_deleted THEN :quantity
+            ELSE cart_items.quantity + :quantity END,
+            version = cart_items.version + 1,
+            is_deleted = false,
+            deleted_at = NULL""", nativeQuery = true)
+    int upsert(Long id, Long userId, Long bookId, int quantity);
 }
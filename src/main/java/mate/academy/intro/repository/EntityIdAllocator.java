@@ -0,0 +1,30 @@
+package mate.academy.intro.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class EntityIdAllocator {
+    private final EntityManager entityManager;
+
+    public List<Long> allocate(Class<?> entityType, int count) {
+        SharedSessionContractImplementor session =
+                entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityType)
+                .getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((Long) generator.generate(session, null, null, EventType.INSERT));
+        }
+        return ids;
+    }
+}
@@ -1,6 +1,10 @@
 package mate.academy.intro.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import mate.academy.intro.dto.BookSalesDto;
+import mate.academy.intro.dto.OrderItemWithOrderIdDto;
 import mate.academy.intro.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,4 +16,15 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             AND oi.order.id = :orderId 
             AND oi.order.user.id = :userId""")
     Optional<OrderItem> findByIdAndOrderIdAndUserId(Long itemId, Long orderId, Long userId);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.OrderItemWithOrderIdDto(
+                oi.order.id, oi.id, oi.quantity, oi.book.id)
+            FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id""")
+    List<OrderItemWithOrderIdDto> findDtosByOrderIdIn(Collection<Long> orderIds);
+
+    @Query("""
+            SELECT new mate.academy.intro.dto.BookSalesDto(oi.book.id, SUM(oi.quantity))
+            FROM OrderItem oi GROUP BY oi.book.id""")
+    List<BookSalesDto> findBookSales();
 }
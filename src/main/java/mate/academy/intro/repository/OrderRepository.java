@@ -1,10 +1,17 @@
 package mate.academy.intro.repository;
 
+import mate.academy.intro.dto.OrderResponseDto;
 import mate.academy.intro.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findByUserId(Long userId, Pageable pageable);
+    @Query(value = """
+            SELECT new mate.academy.intro.dto.OrderResponseDto(
+                o.id, o.shippingAddress, o.orderDate, o.status, o.total)
+            FROM Order o WHERE o.user.id = :userId""",
+            countQuery = "SELECT count(o) FROM Order o WHERE o.user.id = :userId")
+    Page<OrderResponseDto> findOrderDtosByUserId(Long userId, Pageable pageable);
 }
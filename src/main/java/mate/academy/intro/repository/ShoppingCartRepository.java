@@ -4,8 +4,25 @@ import java.util.Optional;
 import mate.academy.intro.model.ShoppingCart;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     @EntityGraph(attributePaths = {"cartItems", "cartItems.book"})
     Optional<ShoppingCart> findByUserId(Long userId);
+
+    boolean existsByUserId(Long userId);
+
+    @Query("SELECT sc.version FROM ShoppingCart sc WHERE sc.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Modifying
+    @Query("UPDATE ShoppingCart sc SET sc.version = sc.version + 1 WHERE sc.id = :id")
+    int incrementVersion(Long id);
+
+    @Modifying
+    @Query("""
+            UPDATE ShoppingCart sc SET sc.version = sc.version + 1
+            WHERE sc.id = :id AND sc.version = :version""")
+    int incrementVersion(Long id, Long version);
 }
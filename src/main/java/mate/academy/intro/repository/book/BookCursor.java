@@ -0,0 +1,55 @@
+package mate.academy.intro.repository.book;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.exception.InvalidCursorException;
+import mate.academy.intro.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+public record BookCursor(BookSortKey sortKey, Long id, String value) {
+    private static final String SEPARATOR = ":";
+
+    public static BookCursor of(BookSortKey sortKey, BookDtoWithoutCategoryIds book) {
+        return new BookCursor(sortKey, book.id(), sortKey.valueOf(book));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            BookSortKey sortKey = BookSortKey.valueOf(parts[0]);
+            Long id = Long.valueOf(parts[1]);
+            String value = sortKey.getProperty() == null ? null : parts[2];
+            sortKey.parse(value);
+            return new BookCursor(sortKey, id, value);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + id + SEPARATOR + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Specification<Book> toSpecification() {
+        return (root, query, criteriaBuilder) -> {
+            Predicate idAfter = criteriaBuilder.greaterThan(
+                    root.get(BookSortKey.ID_PROPERTY), id);
+            if (sortKey.getProperty() == null) {
+                return idAfter;
+            }
+            Path<Comparable<Object>> sortPath = root.get(sortKey.getProperty());
+            Comparable<Object> sortValue = (Comparable<Object>) sortKey.parse(value);
+            return criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(sortPath, sortValue),
+                    criteriaBuilder.and(criteriaBuilder.equal(sortPath, sortValue), idAfter));
+        };
+    }
+}
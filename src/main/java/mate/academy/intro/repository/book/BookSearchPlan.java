@@ -0,0 +1,47 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import mate.academy.intro.dto.BookSearchParametersDto;
+
+public record BookSearchPlan(List<String> titles, List<String> authors, List<String> isbns,
+                             BigDecimal minPrice, BigDecimal maxPrice, List<Long> categoryIds) {
+    public static BookSearchPlan of(BookSearchParametersDto searchParameters) {
+        return new BookSearchPlan(normalize(searchParameters.title()),
+                normalize(searchParameters.author()),
+                normalize(searchParameters.isbn()),
+                normalize(searchParameters.minPrice()),
+                normalize(searchParameters.maxPrice()),
+                normalize(searchParameters.categoryIds()));
+    }
+
+    private static List<String> normalize(String[] params) {
+        if (params == null) {
+            return List.of();
+        }
+        return Arrays.stream(params)
+                .filter(Objects::nonNull)
+                .map(String::strip)
+                .filter(param -> !param.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static List<Long> normalize(Long[] ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return Arrays.stream(ids)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static BigDecimal normalize(BigDecimal price) {
+        return price == null ? null : price.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,54 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+public enum BookSortKey {
+    ID(null, book -> null, value -> null),
+    TITLE("title", BookDtoWithoutCategoryIds::title, value -> value),
+    PRICE("price", book -> book.price().toPlainString(), BigDecimal::new);
+
+    public static final String ID_PROPERTY = "id";
+
+    private final String property;
+    private final Function<BookDtoWithoutCategoryIds, String> extractor;
+    private final Function<String, Object> parser;
+
+    BookSortKey(String property,
+                Function<BookDtoWithoutCategoryIds, String> extractor,
+                Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public static BookSortKey fromParameter(String parameter) {
+        for (BookSortKey key : values()) {
+            if (key.name().equalsIgnoreCase(parameter)) {
+                return key;
+            }
+        }
+        throw new InvalidCursorException("Unsupported sort key: " + parameter);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort getSort() {
+        return property == null
+                ? Sort.by(ID_PROPERTY)
+                : Sort.by(property, ID_PROPERTY);
+    }
+
+    public String valueOf(BookDtoWithoutCategoryIds book) {
+        return extractor.apply(book);
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+}
@@ -0,0 +1,31 @@
+package mate.academy.intro.repository.book;
+
+import java.util.Arrays;
+import java.util.List;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SpecificationProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategorySpecificationProvider implements SpecificationProvider<Book> {
+    private static final String KEY = "categoryIds";
+    private static final String CATEGORIES_FIELD = "categories";
+    private static final String ID_FIELD = "id";
+
+    @Override
+    public String getKey() {
+        return KEY;
+    }
+
+    @Override
+    public Specification<Book> getSpecification(String[] params) {
+        List<Long> categoryIds = Arrays.stream(params)
+                .map(Long::valueOf)
+                .toList();
+        return (root, query, criteriaBuilder) -> {
+            query.distinct(true);
+            return root.join(CATEGORIES_FIELD).get(ID_FIELD).in(categoryIds);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SpecificationProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MaxPriceSpecificationProvider implements SpecificationProvider<Book> {
+    private static final String KEY = "maxPrice";
+    private static final String PRICE_COLUMN = "price";
+
+    @Override
+    public String getKey() {
+        return KEY;
+    }
+
+    @Override
+    public Specification<Book> getSpecification(String[] params) {
+        BigDecimal price = new BigDecimal(params[0]);
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.lessThanOrEqualTo(root.get(PRICE_COLUMN), price);
+    }
+}
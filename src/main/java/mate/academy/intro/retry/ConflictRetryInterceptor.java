@@ -0,0 +1,89 @@
+package mate.academy.intro.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.StaleStateException;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ConflictRetryInterceptor implements MethodInterceptor {
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryInterceptor(ObjectProvider<MeterRegistry> meterRegistry,
+                                    int maxAttempts,
+                                    Duration initialBackoff, Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        String operation = AopUtils.getTargetClass(invocation.getThis()).getSimpleName()
+                + "." + invocation.getMethod().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                count("book_store.retry.conflicts", operation);
+                if (attempt >= maxAttempts) {
+                    count("book_store.retry.exhausted", operation);
+                    throw e;
+                }
+                count("book_store.retry.retries", operation);
+                Thread.sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private void count(String name, String operation) {
+        meterRegistry.ifAvailable(registry -> registry.counter(name, "operation", operation)
+                .increment());
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis,
+                initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof StaleStateException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == MYSQL_DEADLOCK
+                    || sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                    || SERIALIZATION_FAILURE.equals(sqlException.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
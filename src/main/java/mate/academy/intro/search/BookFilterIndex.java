@@ -0,0 +1,205 @@
+package mate.academy.intro.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import mate.academy.intro.dto.BookCategoryIdDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.book.BookSearchPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class BookFilterIndex {
+    private static final int BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final boolean enabled;
+    private final BigDecimal priceBucketWidth;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, BookIdBitmap> byCategory = new HashMap<>();
+    private final TreeMap<Long, BookIdBitmap> byPriceBucket = new TreeMap<>();
+    private final BookIdBitmap all = new BookIdBitmap();
+    private volatile boolean ready;
+    private volatile boolean overflowed;
+
+    public BookFilterIndex(BookRepository bookRepository,
+                           @Value("${book.filter-index.enabled:true}") boolean enabled,
+                           @Value("${book.filter-index.price-bucket:10}")
+                           BigDecimal priceBucketWidth) {
+        this.bookRepository = bookRepository;
+        this.enabled = enabled;
+        this.priceBucketWidth = priceBucketWidth;
+    }
+
+    public Optional<BookIdBitmap> select(BookSearchParametersDto parametersDto) {
+        BookSearchPlan plan = BookSearchPlan.of(parametersDto);
+        if (!ready || overflowed || !plan.titles().isEmpty() || !plan.authors().isEmpty()
+                || !plan.isbns().isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BookIdBitmap result = all;
+            if (!plan.categoryIds().isEmpty()) {
+                result = result.and(union(plan.categoryIds(), byCategory));
+            }
+            if (plan.minPrice() != null || plan.maxPrice() != null) {
+                result = result.and(priceRange(plan.minPrice(), plan.maxPrice()));
+            }
+            return Optional.of(result == all ? all.copy() : result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            clear();
+            overflowed = false;
+            long lastId = 0;
+            List<BookDtoWithoutCategoryIds> batch;
+            do {
+                batch = bookRepository.findRowsAfter(lastId, BATCH_SIZE);
+                if (!batch.isEmpty()) {
+                    Map<Long, List<Long>> categoryIds = bookRepository
+                            .findCategoryIdsByBookIdIn(batch.stream()
+                                    .map(BookDtoWithoutCategoryIds::id)
+                                    .toList())
+                            .stream()
+                            .collect(Collectors.groupingBy(BookCategoryIdDto::bookId,
+                                    Collectors.mapping(BookCategoryIdDto::categoryId,
+                                            Collectors.toList())));
+                    batch.forEach(book -> put(book,
+                            categoryIds.getOrDefault(book.id(), List.of())));
+                    lastId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.bookId());
+            if (!event.isDeleted()) {
+                put(event.book(), event.categoryIds());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(BookDtoWithoutCategoryIds book, List<Long> categoryIds) {
+        if (book.id() > Integer.MAX_VALUE) {
+            overflowed = true;
+            return;
+        }
+        int id = book.id().intValue();
+        Entry entry = new Entry(List.copyOf(categoryIds), book.price());
+        entries.put(id, entry);
+        all.add(id);
+        entry.categoryIds().forEach(categoryId ->
+                byCategory.computeIfAbsent(categoryId, key -> new BookIdBitmap()).add(id));
+        byPriceBucket.computeIfAbsent(bucketOf(entry.price()), key -> new BookIdBitmap())
+                .add(id);
+    }
+
+    private void remove(Long bookId) {
+        if (bookId > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = bookId.intValue();
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        entry.categoryIds().forEach(categoryId -> removeFrom(byCategory, categoryId, id));
+        removeFrom(byPriceBucket, bucketOf(entry.price()), id);
+    }
+
+    private void clear() {
+        entries.keySet().forEach(all::remove);
+        entries.clear();
+        byCategory.clear();
+        byPriceBucket.clear();
+    }
+
+    private BookIdBitmap priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        BookIdBitmap result = new BookIdBitmap();
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return result;
+        }
+        Map<Long, BookIdBitmap> buckets;
+        if (minPrice != null && maxPrice != null) {
+            buckets = byPriceBucket.subMap(bucketOf(minPrice), true, bucketOf(maxPrice), true);
+        } else if (minPrice != null) {
+            buckets = byPriceBucket.tailMap(bucketOf(minPrice), true);
+        } else {
+            buckets = byPriceBucket.headMap(bucketOf(maxPrice), true);
+        }
+        for (BookIdBitmap bucket : buckets.values()) {
+            result = result.or(bucket);
+        }
+        return result.filter(id -> {
+            BigDecimal price = entries.get(id).price();
+            return (minPrice == null || price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+        });
+    }
+
+    private <K> BookIdBitmap union(List<K> keys, Map<K, BookIdBitmap> bitmaps) {
+        BookIdBitmap result = new BookIdBitmap();
+        for (K key : keys) {
+            BookIdBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                result = result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private <K> void removeFrom(Map<K, BookIdBitmap> bitmaps, K key, int id) {
+        BookIdBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private long bucketOf(BigDecimal price) {
+        return price.divide(priceBucketWidth, 0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    private record Entry(List<Long> categoryIds, BigDecimal price) {
+    }
+}
@@ -0,0 +1,420 @@
+package mate.academy.intro.search;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+public final class BookIdBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITSET_WORDS = 1024;
+    private static final int LOW_BITS = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private final TreeMap<Integer, Container> containers;
+
+    public BookIdBitmap() {
+        this(new TreeMap<>());
+    }
+
+    private BookIdBitmap(TreeMap<Integer, Container> containers) {
+        this.containers = containers;
+    }
+
+    public static BookIdBitmap of(int... values) {
+        BookIdBitmap bitmap = new BookIdBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        int high = value >>> LOW_BITS;
+        Container container = containers.get(high);
+        containers.put(high, container == null
+                ? new ArrayContainer().add(value & LOW_MASK)
+                : container.add(value & LOW_MASK));
+    }
+
+    public void remove(int value) {
+        int high = value >>> LOW_BITS;
+        Container container = containers.get(high);
+        if (container == null) {
+            return;
+        }
+        Container updated = container.remove(value & LOW_MASK);
+        if (updated.cardinality() == 0) {
+            containers.remove(high);
+        } else {
+            containers.put(high, updated);
+        }
+    }
+
+    public boolean contains(int value) {
+        Container container = containers.get(value >>> LOW_BITS);
+        return container != null && container.contains(value & LOW_MASK);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Container container : containers.values()) {
+            cardinality += container.cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return containers.isEmpty();
+    }
+
+    public BookIdBitmap and(BookIdBitmap other) {
+        TreeMap<Integer, Container> result = new TreeMap<>();
+        containers.forEach((high, container) -> {
+            Container otherContainer = other.containers.get(high);
+            if (otherContainer != null) {
+                Container intersection = container.and(otherContainer);
+                if (intersection.cardinality() > 0) {
+                    result.put(high, intersection);
+                }
+            }
+        });
+        return new BookIdBitmap(result);
+    }
+
+    public BookIdBitmap or(BookIdBitmap other) {
+        TreeMap<Integer, Container> result = new TreeMap<>();
+        containers.forEach((high, container) -> result.put(high, container.copy()));
+        other.containers.forEach((high, container) -> result.merge(high, container.copy(),
+                Container::or));
+        return new BookIdBitmap(result);
+    }
+
+    public BookIdBitmap andNot(BookIdBitmap other) {
+        TreeMap<Integer, Container> result = new TreeMap<>();
+        containers.forEach((high, container) -> {
+            Container otherContainer = other.containers.get(high);
+            Container difference = otherContainer == null
+                    ? container.copy()
+                    : container.filter(low -> !otherContainer.contains(low));
+            if (difference.cardinality() > 0) {
+                result.put(high, difference);
+            }
+        });
+        return new BookIdBitmap(result);
+    }
+
+    public BookIdBitmap filter(IntPredicate predicate) {
+        TreeMap<Integer, Container> result = new TreeMap<>();
+        containers.forEach((high, container) -> {
+            int base = high << LOW_BITS;
+            Container filtered = container.filter(low -> predicate.test(base | low));
+            if (filtered.cardinality() > 0) {
+                result.put(high, filtered);
+            }
+        });
+        return new BookIdBitmap(result);
+    }
+
+    public BookIdBitmap copy() {
+        TreeMap<Integer, Container> result = new TreeMap<>();
+        containers.forEach((high, container) -> result.put(high, container.copy()));
+        return new BookIdBitmap(result);
+    }
+
+    public int[] page(int offset, int limit) {
+        return collect(-1, offset, limit);
+    }
+
+    public int[] after(int value, int limit) {
+        return collect(value, 0, limit);
+    }
+
+    private int[] collect(int after, int offset, int limit) {
+        int[] values = new int[limit];
+        int count = 0;
+        int skip = offset;
+        int start = after + 1;
+        for (Map.Entry<Integer, Container> entry
+                : containers.tailMap(start >>> LOW_BITS, true).entrySet()) {
+            int base = entry.getKey() << LOW_BITS;
+            Container container = entry.getValue();
+            int cardinality = container.cardinality();
+            if (start <= base && skip >= cardinality) {
+                skip -= cardinality;
+                continue;
+            }
+            int low = container.next(start > base ? start & LOW_MASK : 0);
+            while (low >= 0 && count < limit) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    values[count++] = base | low;
+                }
+                low = low == LOW_MASK ? -1 : container.next(low + 1);
+            }
+            if (count == limit) {
+                break;
+            }
+        }
+        return count == limit ? values : Arrays.copyOf(values, count);
+    }
+
+    private interface Container {
+        Container add(int low);
+
+        Container remove(int low);
+
+        boolean contains(int low);
+
+        int cardinality();
+
+        int next(int low);
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container filter(IntPredicate predicate);
+
+        Container copy();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitset().add(low);
+            }
+            int insertAt = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values,
+                        Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+            values[insertAt] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int next(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            int position = index >= 0 ? index : -index - 1;
+            return position < cardinality ? values[position] : -1;
+        }
+
+        @Override
+        public Container and(Container other) {
+            return filter(other::contains);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitsetContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int size = 0;
+            int left = 0;
+            int right = 0;
+            while (left < cardinality || right < array.cardinality) {
+                char value;
+                if (right == array.cardinality
+                        || left < cardinality && values[left] < array.values[right]) {
+                    value = values[left++];
+                } else if (left == cardinality || array.values[right] < values[left]) {
+                    value = array.values[right++];
+                } else {
+                    value = values[left++];
+                    right++;
+                }
+                merged[size++] = value;
+            }
+            ArrayContainer union = new ArrayContainer(merged, size);
+            return size > ARRAY_LIMIT ? union.toBitset() : union;
+        }
+
+        @Override
+        public Container filter(IntPredicate predicate) {
+            char[] kept = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (predicate.test(values[i])) {
+                    kept[size++] = values[i];
+                }
+            }
+            return new ArrayContainer(kept, size);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)),
+                    cardinality);
+        }
+
+        private BitsetContainer toBitset() {
+            BitsetContainer bitset = new BitsetContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitset.add(values[i]);
+            }
+            return bitset;
+        }
+    }
+
+    private static final class BitsetContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitsetContainer() {
+            this(new long[BITSET_WORDS], 0);
+        }
+
+        private BitsetContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(int low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(int low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int next(int low) {
+            int index = low >>> 6;
+            long word = words[index] & (-1L << low);
+            while (word == 0) {
+                if (++index == BITSET_WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            long[] result = new long[BITSET_WORDS];
+            int size = 0;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                result[i] = words[i] & bitset.words[i];
+                size += Long.bitCount(result[i]);
+            }
+            BitsetContainer intersection = new BitsetContainer(result, size);
+            return size <= ARRAY_LIMIT ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitsetContainer union = (BitsetContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    union.add(array.values[i]);
+                }
+                return union;
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            int size = 0;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                union.words[i] |= bitset.words[i];
+                size += Long.bitCount(union.words[i]);
+            }
+            union.cardinality = size;
+            return union;
+        }
+
+        @Override
+        public Container filter(IntPredicate predicate) {
+            long[] result = new long[BITSET_WORDS];
+            int size = 0;
+            for (int low = next(0); low >= 0; low = low == LOW_MASK ? -1 : next(low + 1)) {
+                if (predicate.test(low)) {
+                    result[low >>> 6] |= 1L << low;
+                    size++;
+                }
+            }
+            BitsetContainer filtered = new BitsetContainer(result, size);
+            return size <= ARRAY_LIMIT ? filtered.toArray() : filtered;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitsetContainer(words.clone(), cardinality);
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int size = 0;
+            for (int low = next(0); low >= 0; low = low == LOW_MASK ? -1 : next(low + 1)) {
+                values[size++] = (char) low;
+            }
+            return new ArrayContainer(values, size);
+        }
+    }
+}
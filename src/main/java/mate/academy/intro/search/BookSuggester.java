@@ -0,0 +1,80 @@
+package mate.academy.intro.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.BookSalesDto;
+import mate.academy.intro.dto.BookSuggestionDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.OrderItemRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@RequiredArgsConstructor
+@Component
+public class BookSuggester {
+    private static final int BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Map<Long, Long> sales = Map.of();
+    private volatile BookSuggestionIndex index = BookSuggestionIndex.empty();
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return index.suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sales = loadSales();
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${book.suggest.rebuild-delay:5000}")
+    public void rebuildIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${book.suggest.sales-refresh-delay:600000}",
+            fixedDelayString = "${book.suggest.sales-refresh-delay:600000}")
+    public void refreshSales() {
+        sales = loadSales();
+        dirty.set(true);
+    }
+
+    private Map<Long, Long> loadSales() {
+        return orderItemRepository.findBookSales().stream()
+                .collect(Collectors.toMap(BookSalesDto::bookId, BookSalesDto::quantity));
+    }
+
+    private void rebuild() {
+        Map<Long, Long> sales = this.sales;
+        BookSuggestionIndex.Builder builder = BookSuggestionIndex.builder();
+        long lastId = 0;
+        List<BookDtoWithoutCategoryIds> batch;
+        do {
+            batch = bookRepository.findRowsAfter(lastId, BATCH_SIZE);
+            for (BookDtoWithoutCategoryIds book : batch) {
+                long weight = sales.getOrDefault(book.id(), 0L);
+                builder.add(book.title(), SuggestionType.TITLE, weight);
+                builder.add(book.author(), SuggestionType.AUTHOR, weight);
+                lastId = book.id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        index = builder.build();
+    }
+}
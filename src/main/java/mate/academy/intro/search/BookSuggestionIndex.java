@@ -0,0 +1,170 @@
+package mate.academy.intro.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import mate.academy.intro.dto.BookSuggestionDto;
+
+public final class BookSuggestionIndex {
+    private static final SuggestionType[] TYPES = SuggestionType.values();
+    private final char[] chars;
+    private final int[] offsets;
+    private final long[] weights;
+    private final byte[] types;
+    private final int[] tree;
+    private final int size;
+
+    private BookSuggestionIndex(List<Entry> entries) {
+        size = entries.size();
+        offsets = new int[size + 1];
+        weights = new long[size];
+        types = new byte[size];
+        int length = 0;
+        for (Entry entry : entries) {
+            length += entry.text.length();
+        }
+        chars = new char[length];
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            entry.text.getChars(0, entry.text.length(), chars, offsets[i]);
+            offsets[i + 1] = offsets[i] + entry.text.length();
+            weights[i] = entry.weight;
+            types[i] = (byte) entry.type.ordinal();
+        }
+        tree = new int[Math.max(2 * size, 1)];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static BookSuggestionIndex empty() {
+        return new BookSuggestionIndex(List.of());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0 || size == 0) {
+            return List.of();
+        }
+        String normalizedPrefix = prefix.strip();
+        int from = lowerBound(normalizedPrefix, false);
+        int to = lowerBound(normalizedPrefix, true);
+        if (from >= to) {
+            return List.of();
+        }
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((first, second) ->
+                compareEntries(tree[first], tree[second]));
+        for (int left = from + size, right = to + size; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                nodes.add(left++);
+            }
+            if ((right & 1) == 1) {
+                nodes.add(--right);
+            }
+        }
+        List<BookSuggestionDto> suggestions = new ArrayList<>(limit);
+        while (!nodes.isEmpty() && suggestions.size() < limit) {
+            int node = nodes.poll();
+            if (node >= size) {
+                int entry = node - size;
+                suggestions.add(new BookSuggestionDto(text(entry), TYPES[types[entry]]));
+            } else {
+                nodes.add(2 * node);
+                nodes.add(2 * node + 1);
+            }
+        }
+        return suggestions;
+    }
+
+    private int lowerBound(String prefix, boolean inclusive) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparePrefix(middle, prefix);
+            if (comparison < 0 || inclusive && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int entry, String prefix) {
+        int start = offsets[entry];
+        int length = Math.min(offsets[entry + 1] - start, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int comparison = Character.compare(Character.toLowerCase(chars[start + i]),
+                    Character.toLowerCase(prefix.charAt(i)));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length == prefix.length() ? 0 : -1;
+    }
+
+    private int compareEntries(int first, int second) {
+        int comparison = Long.compare(weights[second], weights[first]);
+        return comparison != 0 ? comparison : Integer.compare(first, second);
+    }
+
+    private int better(int first, int second) {
+        return compareEntries(first, second) <= 0 ? first : second;
+    }
+
+    private String text(int entry) {
+        return new String(chars, offsets[entry], offsets[entry + 1] - offsets[entry]);
+    }
+
+    private static String key(String text) {
+        char[] lowerCase = text.toCharArray();
+        for (int i = 0; i < lowerCase.length; i++) {
+            lowerCase[i] = Character.toLowerCase(lowerCase[i]);
+        }
+        return new String(lowerCase);
+    }
+
+    private record Entry(String key, String text, SuggestionType type, long weight) {
+    }
+
+    public static final class Builder {
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String text, SuggestionType type, long weight) {
+            if (text == null || text.isBlank()) {
+                return this;
+            }
+            String stripped = text.strip();
+            String key = key(stripped);
+            entries.merge(type + ":" + key, new Entry(key, stripped, type, weight),
+                    (existing, added) -> new Entry(existing.key, existing.text, type,
+                            existing.weight + added.weight));
+            return this;
+        }
+
+        public BookSuggestionIndex build() {
+            List<Entry> sorted = new ArrayList<>(entries.values());
+            sorted.sort(Comparator.comparing(Entry::key)
+                    .thenComparing(Entry::type)
+                    .thenComparing(Entry::text));
+            return new BookSuggestionIndex(sorted);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package mate.academy.intro.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookTextIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByBookId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] bookIds = new long[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private Postings[][] docPostings = new Postings[INITIAL_CAPACITY][];
+    private int docCount;
+    private int liveDocCount;
+    private long totalLength;
+
+    public void index(BookDtoWithoutCategoryIds book) {
+        List<String> tokens = tokenize(book.title(), book.author(), book.description());
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeDoc(book.id());
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            bookIds[doc] = book.id();
+            docLengths[doc] = tokens.size();
+            docByBookId.put(book.id(), doc);
+            liveDocCount++;
+            totalLength += tokens.size();
+            docPostings[doc] = frequencies.entrySet().stream()
+                    .map(entry -> postings.computeIfAbsent(entry.getKey(), Postings::new)
+                            .add(doc, entry.getValue()))
+                    .toArray(Postings[]::new);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByBookId.clear();
+            deleted.clear();
+            bookIds = new long[INITIAL_CAPACITY];
+            docLengths = new int[INITIAL_CAPACITY];
+            docPostings = new Postings[INITIAL_CAPACITY][];
+            docCount = 0;
+            liveDocCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveDocCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / liveDocCount;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                int documentFrequency = termPostings.live;
+                double idf = Math.log(1 + (liveDocCount - documentFrequency + 0.5)
+                        / (documentFrequency + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int doc = termPostings.docs[i];
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    int frequency = termPostings.frequencies[i];
+                    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    scores.merge(doc, idf * frequency * (K1 + 1) / (frequency + norm),
+                            Double::sum);
+                }
+            }
+            return topDocs(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String... fields) {
+        List<String> tokens = new ArrayList<>();
+        for (String field : fields) {
+            if (field == null || field.isBlank()) {
+                continue;
+            }
+            String decomposed = Normalizer.normalize(field, Normalizer.Form.NFD);
+            String normalized = DIACRITICS.matcher(decomposed)
+                    .replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String token : SEPARATOR.split(normalized)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private List<Long> topDocs(Map<Integer, Double> scores, int limit) {
+        Comparator<Map.Entry<Integer, Double>> byScore = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(
+                byScore.thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        Long[] result = new Long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = bookIds[top.poll().getKey()];
+        }
+        return Arrays.asList(result);
+    }
+
+    int postingCount(String term) {
+        lock.readLock().lock();
+        try {
+            Postings termPostings = postings.get(term);
+            return termPostings == null ? 0 : termPostings.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int docSlots() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDoc(Long bookId) {
+        Integer doc = docByBookId.remove(bookId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        liveDocCount--;
+        totalLength -= docLengths[doc];
+        for (Postings termPostings : docPostings[doc]) {
+            termPostings.live--;
+            if (termPostings.live == 0) {
+                postings.remove(termPostings.term);
+            } else if (termPostings.size > 2 * termPostings.live) {
+                termPostings.compact(deleted);
+            }
+        }
+        docPostings[doc] = null;
+        if (docCount - liveDocCount > Math.max(INITIAL_CAPACITY, liveDocCount)) {
+            renumber();
+        }
+    }
+
+    private void renumber() {
+        int[] newDocs = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                newDocs[doc] = next;
+                bookIds[next] = bookIds[doc];
+                docLengths[next] = docLengths[doc];
+                docPostings[next] = docPostings[doc];
+                next++;
+            }
+        }
+        Arrays.fill(docPostings, next, docCount, null);
+        postings.values().forEach(termPostings -> termPostings.renumber(deleted, newDocs));
+        docByBookId.replaceAll((bookId, doc) -> newDocs[doc]);
+        deleted.clear();
+        docCount = next;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bookIds.length) {
+            int newLength = Math.max(capacity, bookIds.length * 2);
+            bookIds = Arrays.copyOf(bookIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+            docPostings = Arrays.copyOf(docPostings, newLength);
+        }
+    }
+
+    private static class Postings {
+        private final String term;
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int live;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private Postings add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+            return this;
+        }
+
+        private void compact(BitSet deleted) {
+            renumber(deleted, null);
+        }
+
+        private void renumber(BitSet deleted, int[] newDocs) {
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                if (!deleted.get(docs[i])) {
+                    docs[next] = newDocs == null ? docs[i] : newDocs[docs[i]];
+                    frequencies[next] = frequencies[i];
+                    next++;
+                }
+            }
+            size = next;
+        }
+    }
+}
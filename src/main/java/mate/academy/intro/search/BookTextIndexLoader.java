@@ -0,0 +1,42 @@
+package mate.academy.intro.search;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.repository.BookRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@RequiredArgsConstructor
+@Component
+public class BookTextIndexLoader {
+    private static final int BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final BookTextIndex bookTextIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        bookTextIndex.clear();
+        long lastId = 0;
+        List<BookDtoWithoutCategoryIds> batch;
+        do {
+            batch = bookRepository.findRowsAfter(lastId, BATCH_SIZE);
+            batch.forEach(bookTextIndex::index);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            bookTextIndex.remove(event.bookId());
+        } else {
+            bookTextIndex.index(event.book());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package mate.academy.intro.search;
+
+public enum SuggestionType {
+    TITLE,
+    AUTHOR
+}
@@ -0,0 +1,9 @@
+package mate.academy.intro.service;
+
+import java.util.List;
+import mate.academy.intro.dto.BookBatchOperationDto;
+import mate.academy.intro.dto.BookBatchResultDto;
+
+public interface BookBatchService {
+    List<BookBatchResultDto> apply(List<BookBatchOperationDto> operations);
+}
@@ -0,0 +1,172 @@
+package mate.academy.intro.service;
+
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookBatchOperationDto;
+import mate.academy.intro.dto.BookBatchOperationType;
+import mate.academy.intro.dto.BookBatchResultDto;
+import mate.academy.intro.dto.BookCategoryIdDto;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.mapper.BookMapper;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.CategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+@RequiredArgsConstructor
+@Service
+public class BookBatchServiceImpl implements BookBatchService {
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookMapper bookMapper;
+    private final BookCacheEvictor bookCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public List<BookBatchResultDto> apply(List<BookBatchOperationDto> operations) {
+        Map<Long, Category> categories = categoryRepository
+                .findAllById(referencedCategoryIds(operations)).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<Long, Book> books = bookRepository
+                .findAllWithCategoriesByIdIn(idsOf(operations, BookBatchOperationType.UPDATE))
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<Long> deletableIds = new HashSet<>(bookRepository
+                .findExistingIds(idsOf(operations, BookBatchOperationType.DELETE)));
+        BookBatchResultDto[] results = new BookBatchResultDto[operations.size()];
+        Map<Integer, Book> savedBooks = new LinkedHashMap<>();
+        List<Long> deletedIds = new ArrayList<>();
+        Set<Long> affectedCategoryIds = new HashSet<>();
+        Set<Long> claimedIds = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BookBatchOperationDto operation = operations.get(i);
+            String error = validate(operation, categories);
+            if (error != null) {
+                results[i] = failure(i, operation, HttpStatus.BAD_REQUEST, error);
+            } else if (operation.id() != null && !claimedIds.add(operation.id())) {
+                results[i] = failure(i, operation, HttpStatus.CONFLICT,
+                        "Book " + operation.id() + " is already changed earlier in this batch");
+            } else if (operation.type() == BookBatchOperationType.CREATE) {
+                Book book = bookMapper.toModel(operation.book());
+                book.setCategories(categoriesOf(operation.book(), categories));
+                savedBooks.put(i, book);
+            } else if (operation.type() == BookBatchOperationType.UPDATE) {
+                Book book = books.get(operation.id());
+                if (book == null) {
+                    results[i] = failure(i, operation, HttpStatus.NOT_FOUND,
+                            "Can not find book with id: " + operation.id());
+                } else if (operation.version() != null
+                        && !operation.version().equals(book.getVersion())) {
+                    results[i] = failure(i, operation, HttpStatus.PRECONDITION_FAILED,
+                            "Book " + operation.id() + " has version " + book.getVersion()
+                                    + ", expected " + operation.version());
+                } else {
+                    book.getCategories().forEach(category ->
+                            affectedCategoryIds.add(category.getId()));
+                    bookMapper.updateBook(book, operation.book());
+                    book.setCategories(categoriesOf(operation.book(), categories));
+                    savedBooks.put(i, book);
+                }
+            } else if (deletableIds.remove(operation.id())) {
+                deletedIds.add(operation.id());
+                results[i] = new BookBatchResultDto(i, operation.type(), operation.id(),
+                        HttpStatus.NO_CONTENT.value(), null, null);
+            } else {
+                results[i] = failure(i, operation, HttpStatus.NOT_FOUND,
+                        "Can not find book with id: " + operation.id());
+            }
+        }
+        bookRepository.saveAll(savedBooks.values());
+        bookRepository.flush();
+        if (!deletedIds.isEmpty()) {
+            bookRepository.findCategoryIdsByBookIdIn(deletedIds).stream()
+                    .map(BookCategoryIdDto::categoryId)
+                    .forEach(affectedCategoryIds::add);
+            bookRepository.softDeleteByIdIn(deletedIds);
+            deletedIds.forEach(id -> {
+                bookCacheEvictor.evict(id, List.of());
+                eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+            });
+        }
+        savedBooks.forEach((index, book) -> {
+            BookBatchOperationDto operation = operations.get(index);
+            HttpStatus status = operation.type() == BookBatchOperationType.CREATE
+                    ? HttpStatus.CREATED
+                    : HttpStatus.OK;
+            results[index] = new BookBatchResultDto(index, operation.type(), book.getId(),
+                    status.value(), null, bookMapper.bookToBookDto(book));
+            List<Long> categoryIds = book.getCategories().stream()
+                    .map(Category::getId)
+                    .toList();
+            affectedCategoryIds.addAll(categoryIds);
+            bookCacheEvictor.evict(book.getId(), List.of());
+            eventPublisher.publishEvent(BookChangedEvent.saved(book.getId(),
+                    bookMapper.toDtoWithoutCategories(book), categoryIds));
+        });
+        bookCacheEvictor.evict(null, affectedCategoryIds);
+        return Arrays.asList(results);
+    }
+
+    private String validate(BookBatchOperationDto operation, Map<Long, Category> categories) {
+        if (operation.type() != BookBatchOperationType.CREATE && operation.id() == null) {
+            return "id is required for " + operation.type();
+        }
+        if (operation.type() == BookBatchOperationType.DELETE) {
+            return null;
+        }
+        if (operation.book() == null) {
+            return "book is required for " + operation.type();
+        }
+        List<Long> unknownCategoryIds = operation.book().getCategoriesId().stream()
+                .filter(categoryId -> !categories.containsKey(categoryId))
+                .toList();
+        return unknownCategoryIds.isEmpty()
+                ? null
+                : "Can not find categories with ids: " + unknownCategoryIds;
+    }
+
+    private Set<Category> categoriesOf(CreateBookRequestDto book,
+                                       Map<Long, Category> categories) {
+        return book.getCategoriesId().stream()
+                .map(categories::get)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Long> referencedCategoryIds(List<BookBatchOperationDto> operations) {
+        return operations.stream()
+                .map(BookBatchOperationDto::book)
+                .filter(Objects::nonNull)
+                .flatMap(book -> book.getCategoriesId().stream())
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Long> idsOf(List<BookBatchOperationDto> operations,
+                            BookBatchOperationType type) {
+        return operations.stream()
+                .filter(operation -> operation.type() == type)
+                .map(BookBatchOperationDto::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private BookBatchResultDto failure(int index, BookBatchOperationDto operation,
+                                       HttpStatus status, String message) {
+        return new BookBatchResultDto(index, operation.type(), operation.id(), status.value(),
+                message, null);
+    }
+}
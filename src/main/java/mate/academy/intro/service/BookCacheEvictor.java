@@ -0,0 +1,49 @@
+package mate.academy.intro.service;
+
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@RequiredArgsConstructor
+@Component
+public class BookCacheEvictor {
+    private final CacheManager cacheManager;
+
+    public void evict(Long bookId, Collection<Long> categoryIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evictNow(bookId, categoryIds);
+                        }
+                    });
+        } else {
+            evictNow(bookId, categoryIds);
+        }
+    }
+
+    private void evictNow(Long bookId, Collection<Long> categoryIds) {
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        if (books != null && bookId != null) {
+            books.evict(bookId);
+        }
+        Cache booksByCategory = cacheManager.getCache(CacheConfig.BOOKS_BY_CATEGORY);
+        if (booksByCategory != null && !categoryIds.isEmpty()) {
+            booksByCategory.clear();
+        }
+        Cache bookPages = cacheManager.getCache(CacheConfig.BOOK_PAGES);
+        if (bookPages != null) {
+            bookPages.clear();
+        }
+        Cache bookSearchFacets = cacheManager.getCache(CacheConfig.BOOK_SEARCH_FACETS);
+        if (bookSearchFacets != null) {
+            bookSearchFacets.clear();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package mate.academy.intro.service;
+
+import mate.academy.intro.dto.BookImportJobDto;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface BookImportService {
+    BookImportJobDto startImport(MultipartFile file);
+
+    BookImportJobDto getJob(String jobId);
+}
@@ -0,0 +1,135 @@
+package mate.academy.intro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookImportJobDto;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.exception.ImportQueueFullException;
+import mate.academy.intro.exception.InvalidImportFileException;
+import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.CategoryRepository;
+import mate.academy.intro.service.importer.BookImportFormat;
+import mate.academy.intro.service.importer.BookImportJob;
+import mate.academy.intro.service.importer.BookImportJobRegistry;
+import mate.academy.intro.service.importer.BookImportWriter;
+import mate.academy.intro.service.importer.BookRecord;
+import mate.academy.intro.service.importer.BookRecordReader;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+@RequiredArgsConstructor
+@Service
+public class BookImportServiceImpl implements BookImportService {
+    private static final int BATCH_SIZE = 500;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+    private final BookImportJobRegistry bookImportJobRegistry;
+    private final BookImportWriter bookImportWriter;
+    private final CategoryRepository categoryRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor bookImportExecutor;
+
+    @Override
+    public BookImportJobDto startImport(MultipartFile file) {
+        BookImportFormat format = BookImportFormat.fromFileName(file.getOriginalFilename());
+        Path upload;
+        try {
+            upload = Files.createTempFile("book-import-", format.getExtension());
+            file.transferTo(upload);
+        } catch (IOException e) {
+            throw new InvalidImportFileException("Can not read import file "
+                    + file.getOriginalFilename(), e);
+        }
+        BookImportJob job = bookImportJobRegistry.create(file.getOriginalFilename());
+        try {
+            bookImportExecutor.execute(() -> run(job, format, upload));
+        } catch (TaskRejectedException e) {
+            bookImportJobRegistry.remove(job.getId());
+            deleteUpload(upload);
+            throw new ImportQueueFullException("Too many imports are waiting, retry later",
+                    RETRY_AFTER, e);
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public BookImportJobDto getJob(String jobId) {
+        return bookImportJobRegistry.find(jobId)
+                .map(BookImportJob::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Can not find import job with id: "
+                        + jobId));
+    }
+
+    private void run(BookImportJob job, BookImportFormat format, Path upload) {
+        job.start();
+        try (BookRecordReader reader = format.open(upload, objectMapper)) {
+            Set<Long> categoryIds = categoryRepository.findAll().stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toSet());
+            List<BookRecord> batch = new ArrayList<>(BATCH_SIZE);
+            BookRecord record;
+            while ((record = reader.next()) != null) {
+                job.recordProcessed();
+                String error = validate(record, categoryIds);
+                if (error != null) {
+                    job.recordFailure(record.line(), error);
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    bookImportWriter.write(batch, job);
+                    batch.clear();
+                }
+            }
+            bookImportWriter.write(batch, job);
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        } finally {
+            deleteUpload(upload);
+        }
+    }
+
+    private void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String validate(BookRecord record, Set<Long> categoryIds) {
+        if (!record.isValid()) {
+            return record.error();
+        }
+        CreateBookRequestDto book = record.book();
+        Set<ConstraintViolation<CreateBookRequestDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        List<Long> unknownCategories = book.getCategoriesId().stream()
+                .filter(categoryId -> !categoryIds.contains(categoryId))
+                .toList();
+        if (!unknownCategories.isEmpty()) {
+            return "Can not find categories with ids: " + unknownCategories;
+        }
+        return null;
+    }
+}
@@ -1,9 +1,14 @@
 package mate.academy.intro.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.BookSearchFacetsDto;
 import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.dto.BookSuggestionDto;
 import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.dto.CursorPageDto;
+import mate.academy.intro.repository.book.BookSortKey;
 import org.springframework.data.domain.Pageable;
 
 public interface BookService {
@@ -11,13 +16,34 @@ public interface BookService {
 
     List<BookDto> findAll(Pageable pageable);
 
+    CursorPageDto<BookDto> findAll(String cursor, int size, BookSortKey sortKey);
+
     BookDto getBookById(Long id);
 
+    Long getVersion(Long id);
+
     void deleteById(Long id);
 
-    BookDto updateBook(Long id, CreateBookRequestDto requestDto);
+    BookDto updateBook(Long id, CreateBookRequestDto requestDto, Long expectedVersion);
+
+    List<BookDto> search(BookSearchParametersDto parametersDto, Pageable pageable);
+
+    CursorPageDto<BookDto> search(BookSearchParametersDto parametersDto, String cursor, int size,
+                                  BookSortKey sortKey);
+
+    List<BookDto> search(String query, int size);
+
+    void forEachSearchPage(BookSearchParametersDto parametersDto,
+                           Consumer<List<BookDto>> pageConsumer);
+
+    BookSearchFacetsDto getSearchFacets(BookSearchParametersDto parametersDto);
+
+    void exportCatalog(Consumer<List<BookDto>> chunkConsumer);
+
+    List<BookSuggestionDto> suggest(String prefix, int limit);
 
-    List<BookDto> search(BookSearchParametersDto parametersDto);
+    List<BookDto> findBooksByCategoryId(Long id, Pageable pageable);
 
-    List<BookDto> findBooksByCategoryId(Long id);
+    CursorPageDto<BookDto> findBooksByCategoryId(Long id, String cursor, int size,
+                                                 BookSortKey sortKey);
 }
@@ -1,31 +1,71 @@
 package mate.academy.intro.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.config.CacheConfig;
+import mate.academy.intro.dto.BookCategoryIdDto;
 import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.BookSearchFacetsDto;
 import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.dto.BookSuggestionDto;
 import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.dto.CursorPageDto;
+import mate.academy.intro.event.BookChangedEvent;
 import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.exception.PreconditionFailedException;
 import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.Category;
 import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.BookSpecificationBuilder;
 import mate.academy.intro.repository.CategoryRepository;
+import mate.academy.intro.repository.book.BookCursor;
+import mate.academy.intro.repository.book.BookSortKey;
+import mate.academy.intro.search.BookFilterIndex;
+import mate.academy.intro.search.BookIdBitmap;
+import mate.academy.intro.search.BookSuggester;
+import mate.academy.intro.search.BookTextIndex;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int MAX_FACETS = 50;
+    private static final int EXPORT_CHUNK_SIZE = 500;
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder bookSpecificationBuilder;
     private final CategoryRepository categoryRepository;
+    private final BookCacheEvictor bookCacheEvictor;
+    private final BookTextIndex bookTextIndex;
+    private final BookFilterIndex bookFilterIndex;
+    private final BookSuggester bookSuggester;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
@@ -42,27 +82,46 @@ public class BookServiceImpl implements BookService {
         Book savedBook = bookRepository.findByIdWithCategory(saved.getId())
                 .orElseThrow(()
                         -> new EntityNotFoundException("Can not find book after saving"));
+        bookCacheEvictor.evict(savedBook.getId(), categoryIdsOf(savedBook));
+        eventPublisher.publishEvent(
+                BookChangedEvent.saved(savedBook.getId(),
+                        bookMapper.toDtoWithoutCategories(savedBook), categoryIdsOf(savedBook)));
         return bookMapper.bookToBookDto(savedBook);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_PAGES, key = "#pageable")
     public List<BookDto> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable).stream()
-                .map(bookMapper::bookToBookDto)
-                .toList();
+        return withCategoryIds(bookRepository.findRows(pageable));
+    }
+
+    @Override
+    public CursorPageDto<BookDto> findAll(String cursor, int size, BookSortKey sortKey) {
+        return findPage(Specification.where(null), cursor,
+                Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)), sortKey);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
     public BookDto getBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id " + id));
         return bookMapper.bookToBookDto(book);
     }
 
+    @Override
+    public Long getVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Book not found with id " + id));
+    }
+
     @Override
     public void deleteById(Long id) {
         if (bookRepository.existsById(id)) {
+            List<Long> categoryIds = bookRepository.findCategoryIdsById(id);
             bookRepository.deleteById(id);
+            bookCacheEvictor.evict(id, categoryIds);
+            eventPublisher.publishEvent(BookChangedEvent.deleted(id));
         } else {
             throw new EntityNotFoundException("Can not find book with id: " + id);
         }
@@ -70,10 +129,15 @@ public class BookServiceImpl implements BookService {
 
     @Override
     @Transactional
-    public BookDto updateBook(Long id, CreateBookRequestDto bookDto) {
+    public BookDto updateBook(Long id, CreateBookRequestDto bookDto, Long expectedVersion) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(()
                         -> new EntityNotFoundException("Cant find book by id " + id));
+        if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+            throw new PreconditionFailedException("Book " + id + " has version "
+                    + book.getVersion() + ", expected " + expectedVersion);
+        }
+        final Set<Long> affectedCategoryIds = new HashSet<>(categoryIdsOf(book));
         book = bookMapper.updateBook(book, bookDto);
         Set<Category> categories = bookDto.getCategoriesId().stream()
                 .map(categoryId -> categoryRepository.findById(categoryId)
@@ -85,22 +149,186 @@ public class BookServiceImpl implements BookService {
         bookRepository.save(book);
         Book updatedBook = bookRepository.findByIdWithCategory(id).orElseThrow(()
                 -> new EntityNotFoundException("Can not find book after saving by id" + id));
+        affectedCategoryIds.addAll(categoryIdsOf(updatedBook));
+        bookCacheEvictor.evict(id, affectedCategoryIds);
+        eventPublisher.publishEvent(
+                BookChangedEvent.saved(id, bookMapper.toDtoWithoutCategories(updatedBook),
+                        categoryIdsOf(updatedBook)));
         return bookMapper.bookToBookDto(updatedBook);
     }
 
     @Override
-    public List<BookDto> search(BookSearchParametersDto parametersDto) {
+    public List<BookDto> search(BookSearchParametersDto parametersDto, Pageable pageable) {
+        Pageable page = bounded(pageable);
+        Optional<BookIdBitmap> matches = page.getSort().equals(BookSortKey.ID.getSort())
+                ? bookFilterIndex.select(parametersDto)
+                : Optional.empty();
+        if (matches.isPresent()) {
+            if (page.getOffset() >= matches.get().cardinality()) {
+                return List.of();
+            }
+            return findAllInOrder(Arrays.stream(matches.get()
+                            .page((int) page.getOffset(), page.getPageSize()))
+                    .mapToObj(Long::valueOf)
+                    .toList());
+        }
+        Specification<Book> bookSpecification = bookSpecificationBuilder.build(parametersDto);
+        return withCategoryIds(bookRepository.findRows(bookSpecification, page));
+    }
+
+    @Override
+    public CursorPageDto<BookDto> search(BookSearchParametersDto parametersDto, String cursor,
+                                         int size, BookSortKey sortKey) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        BookCursor after = cursor == null || cursor.isEmpty() ? null : BookCursor.decode(cursor);
+        Optional<BookIdBitmap> matches = (after == null ? sortKey : after.sortKey())
+                == BookSortKey.ID ? bookFilterIndex.select(parametersDto) : Optional.empty();
+        if (matches.isEmpty()) {
+            return findPage(bookSpecificationBuilder.build(parametersDto), cursor, limit,
+                    sortKey);
+        }
+        int afterId = after == null ? 0 : (int) Math.min(after.id(), Integer.MAX_VALUE - 1);
+        List<BookDto> rows = findAllInOrder(Arrays.stream(matches.get().after(afterId, limit + 1))
+                .mapToObj(Long::valueOf)
+                .toList());
+        boolean hasNext = rows.size() > limit;
+        List<BookDto> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext
+                ? new BookCursor(BookSortKey.ID, content.get(limit - 1).getId(), null).encode()
+                : null;
+        return new CursorPageDto<>(content, nextCursor);
+    }
+
+    @Override
+    public List<BookDto> search(String query, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+        return findAllInOrder(bookTextIndex.search(query, limit));
+    }
+
+    @Override
+    public void forEachSearchPage(BookSearchParametersDto parametersDto,
+                                  Consumer<List<BookDto>> pageConsumer) {
         Specification<Book> bookSpecification = bookSpecificationBuilder.build(parametersDto);
-        return bookRepository.findAll(bookSpecification)
+        String cursor = null;
+        do {
+            CursorPageDto<BookDto> page = findPage(bookSpecification, cursor,
+                    STREAM_BATCH_SIZE, BookSortKey.ID);
+            pageConsumer.accept(page.content());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_SEARCH_FACETS,
+            keyGenerator = CacheConfig.BOOK_SEARCH_PLAN_KEY_GENERATOR)
+    public BookSearchFacetsDto getSearchFacets(BookSearchParametersDto parametersDto) {
+        Specification<Book> bookSpecification = bookSpecificationBuilder.build(parametersDto);
+        return new BookSearchFacetsDto(
+                bookRepository.countByCategory(bookSpecification, MAX_FACETS),
+                bookRepository.countByAuthor(bookSpecification, MAX_FACETS));
+    }
+
+    @Override
+    @Transactional
+    public void exportCatalog(Consumer<List<BookDto>> chunkConsumer) {
+        List<BookDtoWithoutCategoryIds> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                chunk.add(bookMapper.toDtoWithoutCategories(book));
+                entityManager.detach(book);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    chunkConsumer.accept(withCategoryIds(chunk));
+                    chunk.clear();
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(withCategoryIds(chunk));
+        }
+    }
+
+    @Override
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return bookSuggester.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS_BY_CATEGORY, key = "{#id, #pageable}")
+    public List<BookDto> findBooksByCategoryId(Long id, Pageable pageable) {
+        return withCategoryIds(bookRepository.findRowsByCategoryId(id, bounded(pageable)));
+    }
+
+    @Override
+    public CursorPageDto<BookDto> findBooksByCategoryId(Long id, String cursor, int size,
+                                                        BookSortKey sortKey) {
+        return findPage(inCategory(id), cursor,
+                Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)), sortKey);
+    }
+
+    private CursorPageDto<BookDto> findPage(Specification<Book> specification, String cursor,
+                                            int limit, BookSortKey sortKey) {
+        BookCursor after = cursor == null || cursor.isEmpty() ? null : BookCursor.decode(cursor);
+        BookSortKey key = after == null ? sortKey : after.sortKey();
+        Specification<Book> pageSpecification = after == null
+                ? specification
+                : specification.and(after.toSpecification());
+        List<BookDtoWithoutCategoryIds> rows = bookRepository.findRows(pageSpecification,
+                PageRequest.of(0, limit + 1, key.getSort()));
+        boolean hasNext = rows.size() > limit;
+        List<BookDtoWithoutCategoryIds> page = hasNext ? rows.subList(0, limit) : rows;
+        List<BookDto> content = withCategoryIds(page);
+        String nextCursor = hasNext
+                ? BookCursor.of(key, page.get(page.size() - 1)).encode()
+                : null;
+        return new CursorPageDto<>(content, nextCursor);
+    }
+
+    private List<BookDto> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookDtoWithoutCategoryIds> rows = bookRepository.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookDtoWithoutCategoryIds::id, Function.identity()));
+        return withCategoryIds(ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private Specification<Book> inCategory(Long categoryId) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.join("categories").get("id"), categoryId);
+    }
+
+    private Pageable bounded(Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : BookSortKey.ID.getSort();
+        if (pageable.isUnpaged()) {
+            return PageRequest.of(0, MAX_SEARCH_SIZE, sort);
+        }
+        return PageRequest.of(pageable.getPageNumber(),
+                Math.min(pageable.getPageSize(), MAX_SEARCH_SIZE), sort);
+    }
+
+    private List<BookDto> withCategoryIds(List<BookDtoWithoutCategoryIds> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        List<Long> bookIds = books.stream()
+                .map(BookDtoWithoutCategoryIds::id)
+                .toList();
+        Map<Long, List<Long>> categoryIds = bookRepository.findCategoryIdsByBookIdIn(bookIds)
                 .stream()
-                .map(bookMapper::bookToBookDto)
+                .collect(Collectors.groupingBy(BookCategoryIdDto::bookId,
+                        Collectors.mapping(BookCategoryIdDto::categoryId, Collectors.toList())));
+        return books.stream()
+                .map(book -> bookMapper.toBookDto(book,
+                        categoryIds.getOrDefault(book.id(), List.of())))
                 .toList();
     }
 
-    @Override
-    public List<BookDto> findBooksByCategoryId(Long id) {
-        return bookRepository.findAllByCategoriesId(id).stream()
-                .map(bookMapper::bookToBookDto)
+    private List<Long> categoryIdsOf(Book book) {
+        return book.getCategories().stream()
+                .map(Category::getId)
                 .toList();
     }
 }
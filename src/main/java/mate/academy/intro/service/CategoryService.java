@@ -1,7 +1,5 @@
 package mate.academy.intro.service;
 
-import java.util.List;
-import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
 import mate.academy.intro.dto.CategoryDto;
 import mate.academy.intro.dto.CreateCategoryRequestDto;
 import org.springframework.data.domain.Page;
@@ -17,6 +15,4 @@ public interface CategoryService {
     CategoryDto update(Long id, CreateCategoryRequestDto categoryDto);
 
     void deleteById(Long id);
-
-    List<BookDtoWithoutCategoryIds> getBookCategoryById(Long categoryId);
 }
@@ -1,16 +1,12 @@
 package mate.academy.intro.service;
 
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
-import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
 import mate.academy.intro.dto.CategoryDto;
 import mate.academy.intro.dto.CreateCategoryRequestDto;
 import mate.academy.intro.exception.EntityNotFoundException;
-import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.mapper.CategoryMapper;
 import mate.academy.intro.model.Category;
-import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.CategoryRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,9 +16,7 @@ import org.springframework.stereotype.Service;
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
-    private final BookRepository bookRepository;
     private final CategoryMapper categoryMapper;
-    private final BookMapper bookMapper;
 
     @Override
     public Page<CategoryDto> findAll(Pageable pageable) {
@@ -59,11 +53,4 @@ public class CategoryServiceImpl implements CategoryService {
             throw new EntityNotFoundException("Can not find category with id: " + id);
         }
     }
-
-    @Override
-    public List<BookDtoWithoutCategoryIds> getBookCategoryById(Long categoryId) {
-        return bookRepository.findAllByCategoriesId(categoryId).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .toList();
-    }
 }
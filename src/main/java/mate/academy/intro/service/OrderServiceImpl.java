@@ -2,11 +2,13 @@ package mate.academy.intro.service;
 
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.CartOrderLineDto;
 import mate.academy.intro.dto.OrderItemResponseDto;
+import mate.academy.intro.dto.OrderItemWithOrderIdDto;
 import mate.academy.intro.dto.OrderRequestDto;
 import mate.academy.intro.dto.OrderResponseDto;
 import mate.academy.intro.dto.UpdateOrderStatusRequestDto;
@@ -14,20 +16,24 @@ import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.exception.OrderProcessingException;
 import mate.academy.intro.mapper.OrderItemMapper;
 import mate.academy.intro.mapper.OrderMapper;
-import mate.academy.intro.model.CartItem;
 import mate.academy.intro.model.Order;
 import mate.academy.intro.model.OrderItem;
 import mate.academy.intro.model.ShoppingCart;
 import mate.academy.intro.model.Status;
-import mate.academy.intro.model.User;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.CartItemRepository;
 import mate.academy.intro.repository.OrderItemRepository;
 import mate.academy.intro.repository.OrderRepository;
 import mate.academy.intro.repository.ShoppingCartRepository;
 import mate.academy.intro.repository.UserRepository;
+import mate.academy.intro.retry.RetryOnConflict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@RetryOnConflict
 @Transactional
 @RequiredArgsConstructor
 @Service
@@ -38,6 +44,10 @@ public class OrderServiceImpl implements OrderService {
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
     private final ShoppingCartRepository shoppingCartRepository;
+    private final ShoppingCartService shoppingCartService;
+    private final CartItemRepository cartItemRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Page<OrderResponseDto> findAll(Pageable pageable) {
@@ -46,39 +56,27 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderResponseDto placeOrder(OrderRequestDto orderRequestDto, Long userId) {
-        User user = findUserById(userId);
-        ShoppingCart shoppingCart = findShoppingCartByUserId(userId);
-
-        if (shoppingCart.getCartItems().isEmpty()) {
-            throw new OrderProcessingException("Shopping cart is empty");
-        }
-
-        Order order = new Order();
-        order.setUser(user);
-        order.setStatus(Status.NEW);
-        order.setShippingAddress(orderRequestDto.getShippingAddress());
-
-        Set<OrderItem> orderItems = createOrderItems(order, shoppingCart);
-        order.setOrderItems(orderItems);
-
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItem item : orderItems) {
-            total = total.add(item.getPrice());
-        }
-        order.setTotal(total);
-
-        orderRepository.save(order);
-        shoppingCart.getCartItems().clear();
-        shoppingCartRepository.save(shoppingCart);
-
-        return orderMapper.toOrderDto(order);
+        shoppingCartService.flushCart(userId);
+        return transactionTemplate.execute(status -> createOrder(orderRequestDto, userId));
     }
 
     @Override
     public Page<OrderResponseDto> getOrderHistory(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable)
-                .map(orderMapper::toOrderDto);
+        Page<OrderResponseDto> orders = orderRepository.findOrderDtosByUserId(userId, pageable);
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        List<Long> orderIds = orders.map(OrderResponseDto::getId).toList();
+        Map<Long, List<OrderItemResponseDto>> orderItems = orderItemRepository
+                .findDtosByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemWithOrderIdDto::orderId,
+                        Collectors.mapping(orderItemMapper::toOrderItemDto,
+                                Collectors.toList())));
+        orders.forEach(order -> order.setOrderItems(
+                orderItems.getOrDefault(order.getId(), List.of())));
+        return orders;
     }
 
     @Override
@@ -111,29 +109,39 @@ public class OrderServiceImpl implements OrderService {
         return orderMapper.toOrderDto(order);
     }
 
-    private User findUserById(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Can't find user by id: " + userId));
-    }
-
-    private ShoppingCart findShoppingCartByUserId(Long userId) {
-        return shoppingCartRepository.findByUserId(userId)
+    private OrderResponseDto createOrder(OrderRequestDto orderRequestDto, Long userId) {
+        Long cartVersion = shoppingCartRepository.findVersionById(userId)
                 .orElseThrow(()
                         -> new EntityNotFoundException("Can't find shopping cart by user id: "
                         + userId));
-    }
+        List<CartOrderLineDto> lines = cartItemRepository.findOrderLinesByShoppingCartId(userId);
+        if (lines.isEmpty()) {
+            throw new OrderProcessingException("Shopping cart is empty");
+        }
+        if (shoppingCartRepository.incrementVersion(userId, cartVersion) == 0) {
+            throw new ObjectOptimisticLockingFailureException(ShoppingCart.class, userId);
+        }
 
-    private Set<OrderItem> createOrderItems(Order order, ShoppingCart shoppingCart) {
-        Set<OrderItem> orderItems = new HashSet<>();
-        for (CartItem cartItem : shoppingCart.getCartItems()) {
+        Order order = new Order();
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setStatus(Status.NEW);
+        order.setShippingAddress(orderRequestDto.getShippingAddress());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartOrderLineDto line : lines) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setBook(cartItem.getBook());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(cartItem.getBook().getPrice()
-                    .multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-            orderItems.add(orderItem);
+            orderItem.setBook(bookRepository.getReferenceById(line.bookId()));
+            orderItem.setQuantity(line.quantity());
+            orderItem.setPrice(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+            order.getOrderItems().add(orderItem);
+            total = total.add(orderItem.getPrice());
         }
-        return orderItems;
+        order.setTotal(total);
+
+        orderRepository.save(order);
+        cartItemRepository.deleteByShoppingCartId(userId);
+
+        return orderMapper.toOrderDto(order);
     }
 }
@@ -1,6 +1,9 @@
 package mate.academy.intro.service;
 
+import java.util.List;
+import mate.academy.intro.dto.CartDeltaDto;
 import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.CartOperationDto;
 import mate.academy.intro.dto.ShoppingCartDto;
 import mate.academy.intro.dto.UpdateCartItemDto;
 import mate.academy.intro.model.User;
@@ -17,4 +20,15 @@ public interface ShoppingCartService {
                                        UpdateCartItemDto quantity);
 
     void removeItem(Long cartItemId, Long userId);
+
+    CartDeltaDto addItemToCartDelta(Long userId, CartItemRequestDto cartItemRequestDto);
+
+    CartDeltaDto updateItemQuantityDelta(Long userId, Long cartItemId,
+                                         UpdateCartItemDto quantity);
+
+    CartDeltaDto removeItemDelta(Long cartItemId, Long userId);
+
+    ShoppingCartDto applyOperations(Long userId, List<CartOperationDto> operations);
+
+    void flushCart(Long userId);
 }
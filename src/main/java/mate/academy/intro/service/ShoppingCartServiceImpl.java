@@ -1,12 +1,21 @@
 package mate.academy.intro.service;
 
 import jakarta.validation.Valid;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.CartDeltaDto;
+import mate.academy.intro.dto.CartItemDto;
 import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.CartOperationDto;
+import mate.academy.intro.dto.CartOperationType;
 import mate.academy.intro.dto.ShoppingCartDto;
 import mate.academy.intro.dto.UpdateCartItemDto;
 import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.mapper.CartItemMapper;
 import mate.academy.intro.mapper.ShoppingCartMapper;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.CartItem;
@@ -14,18 +23,26 @@ import mate.academy.intro.model.ShoppingCart;
 import mate.academy.intro.model.User;
 import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.CartItemRepository;
+import mate.academy.intro.repository.EntityIdAllocator;
 import mate.academy.intro.repository.ShoppingCartRepository;
+import mate.academy.intro.retry.RetryOnConflict;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+@ConditionalOnProperty(name = "book.cart.write-behind.enabled", havingValue = "false",
+        matchIfMissing = true)
+@RetryOnConflict
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class ShoppingCartServiceImpl implements ShoppingCartService {
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
-    private final BookRepository bookRepository;
+    private final EntityIdAllocator entityIdAllocator;
     private final ShoppingCartMapper shoppingCartMapper;
+    private final BookRepository bookRepository;
+    private final CartItemMapper cartItemMapper;
 
     @Override
     public void createShoppingCartForUser(User user) {
@@ -44,29 +61,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
 
     @Override
     public ShoppingCartDto addItemToCart(Long userId, CartItemRequestDto cartItemRequestDto) {
-        ShoppingCart shoppingCart = shoppingCartRepository.findByUserId(userId)
-                .orElseThrow(() ->
-                        new EntityNotFoundException("Shopping cart not found for user:" + userId));
-
-        Book book = bookRepository.findByIdWithCategory(cartItemRequestDto.getBookId())
-                    .orElseThrow(() -> new EntityNotFoundException("Book not found"));
-
-        Optional<CartItem> existCartItem = shoppingCart.getCartItems().stream()
-                .filter(item -> item.getBook().getId().equals(book.getId()))
-                        .findFirst();
-        CartItem cartItem;
-        if (existCartItem.isPresent()) {
-            cartItem = existCartItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + cartItemRequestDto.getQuantity());
-        } else {
-            cartItem = new CartItem();
-            cartItem.setBook(book);
-            cartItem.setQuantity(cartItemRequestDto.getQuantity());
-            cartItem.setShoppingCart(shoppingCart);
-            shoppingCart.getCartItems().add(cartItem);
-        }
-        cartItemRepository.save(cartItem);
-        return shoppingCartMapper.toShoppingCartDto(shoppingCart);
+        upsertItem(userId, cartItemRequestDto);
+        return getCartByUser(userId);
     }
 
     @Override
@@ -81,6 +77,7 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                         -> new EntityNotFoundException("Cart item not found:" + cartItemId));
         cartItem.setQuantity(quantity.getQuantity());
         cartItemRepository.save(cartItem);
+        shoppingCartRepository.incrementVersion(shoppingCart.getId());
         return shoppingCartMapper.toShoppingCartDto(shoppingCart);
     }
 
@@ -94,5 +91,125 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                 .orElseThrow(() -> new EntityNotFoundException("Cart item not found:"
                         + cartItemId));
         cartItemRepository.delete(cartItem);
+        shoppingCartRepository.incrementVersion(shoppingCart.getId());
+    }
+
+    @Override
+    public CartDeltaDto addItemToCartDelta(Long userId, CartItemRequestDto cartItemRequestDto) {
+        upsertItem(userId, cartItemRequestDto);
+        CartItem cartItem = cartItemRepository
+                .findByShoppingCartIdAndBookId(userId, cartItemRequestDto.getBookId())
+                .orElseThrow(() -> new EntityNotFoundException("Book not found"));
+        return toDelta(userId, cartItemMapper.toCartItemDto(cartItem));
+    }
+
+    @Override
+    public CartDeltaDto updateItemQuantityDelta(Long userId, Long cartItemId,
+                                                UpdateCartItemDto quantity) {
+        CartItem cartItem = findItemInCart(userId, cartItemId);
+        cartItem.setQuantity(quantity.getQuantity());
+        cartItemRepository.save(cartItem);
+        shoppingCartRepository.incrementVersion(userId);
+        return toDelta(userId, cartItemMapper.toCartItemDto(cartItem));
+    }
+
+    @Override
+    public CartDeltaDto removeItemDelta(Long cartItemId, Long userId) {
+        CartItem cartItem = findItemInCart(userId, cartItemId);
+        cartItemRepository.delete(cartItem);
+        shoppingCartRepository.incrementVersion(userId);
+        CartItemDto removed = cartItemMapper.toCartItemDto(cartItem);
+        removed.setQuantity(0);
+        return toDelta(userId, removed);
+    }
+
+    @Override
+    public ShoppingCartDto applyOperations(Long userId, List<CartOperationDto> operations) {
+        ShoppingCart shoppingCart = shoppingCartRepository.findByUserId(userId)
+                .orElseThrow(() ->
+                        new EntityNotFoundException("Shopping cart not found for user:" + userId));
+        Map<Long, Book> books = bookRepository.findAllById(operations.stream()
+                        .filter(operation -> operation.type() == CartOperationType.ADD)
+                        .map(CartOperationDto::bookId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, CartItem> removedByBookId = new HashMap<>();
+        for (CartOperationDto operation : operations) {
+            if (operation.type() == CartOperationType.ADD) {
+                addItem(shoppingCart, books, removedByBookId, operation);
+            } else if (operation.type() == CartOperationType.SET_QUANTITY) {
+                findItem(shoppingCart, operation.cartItemId()).setQuantity(operation.quantity());
+            } else {
+                CartItem cartItem = findItem(shoppingCart, operation.cartItemId());
+                shoppingCart.getCartItems().remove(cartItem);
+                removedByBookId.put(cartItem.getBook().getId(), cartItem);
+            }
+        }
+        shoppingCartRepository.save(shoppingCart);
+        shoppingCartRepository.incrementVersion(shoppingCart.getId());
+        return shoppingCartMapper.toShoppingCartDto(shoppingCart);
+    }
+
+    @Override
+    public void flushCart(Long userId) {
+    }
+
+    private void upsertItem(Long userId, CartItemRequestDto cartItemRequestDto) {
+        Long cartItemId = entityIdAllocator.allocate(CartItem.class, 1).get(0);
+        int upserted = cartItemRepository.upsert(cartItemId, userId,
+                cartItemRequestDto.getBookId(), cartItemRequestDto.getQuantity());
+        if (upserted == 0) {
+            if (!shoppingCartRepository.existsByUserId(userId)) {
+                throw new EntityNotFoundException("Shopping cart not found for user:" + userId);
+            }
+            throw new EntityNotFoundException("Book not found");
+        }
+        shoppingCartRepository.incrementVersion(userId);
+    }
+
+    private CartItem findItemInCart(Long userId, Long cartItemId) {
+        return cartItemRepository.findByIdAndShoppingCartId(cartItemId, userId)
+                .orElseThrow(()
+                        -> new EntityNotFoundException("Cart item not found:" + cartItemId));
+    }
+
+    private CartDeltaDto toDelta(Long userId, CartItemDto cartItemDto) {
+        Long version = shoppingCartRepository.findVersionById(userId)
+                .orElseThrow(() ->
+                        new EntityNotFoundException("Shopping cart not found for user:" + userId));
+        return new CartDeltaDto(cartItemDto, version,
+                cartItemRepository.countByShoppingCartId(userId));
+    }
+
+    private void addItem(ShoppingCart shoppingCart, Map<Long, Book> books,
+                         Map<Long, CartItem> removedByBookId, CartOperationDto operation) {
+        Book book = books.get(operation.bookId());
+        if (book == null) {
+            throw new EntityNotFoundException("Book not found");
+        }
+        CartItem existing = shoppingCart.getCartItems().stream()
+                .filter(cartItem -> cartItem.getBook().getId().equals(book.getId()))
+                .findFirst()
+                .orElse(null);
+        if (existing != null) {
+            existing.setQuantity(existing.getQuantity() + operation.quantity());
+            return;
+        }
+        CartItem cartItem = removedByBookId.remove(book.getId());
+        if (cartItem == null) {
+            cartItem = new CartItem();
+            cartItem.setShoppingCart(shoppingCart);
+            cartItem.setBook(book);
+        }
+        cartItem.setQuantity(operation.quantity());
+        shoppingCart.getCartItems().add(cartItem);
+    }
+
+    private CartItem findItem(ShoppingCart shoppingCart, Long cartItemId) {
+        return shoppingCart.getCartItems().stream()
+                .filter(cartItem -> cartItemId.equals(cartItem.getId()))
+                .findFirst()
+                .orElseThrow(()
+                        -> new EntityNotFoundException("Cart item not found:" + cartItemId));
     }
 }
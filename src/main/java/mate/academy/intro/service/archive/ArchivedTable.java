@@ -0,0 +1,12 @@
+package mate.academy.intro.service.archive;
+
+public record ArchivedTable(String name, String columns, String eligible,
+                            String linkTable, String linkColumns, String linkKey) {
+    public ArchivedTable(String name, String columns, String eligible) {
+        this(name, columns, eligible, null, null, null);
+    }
+
+    public boolean hasLinkTable() {
+        return linkTable != null;
+    }
+}
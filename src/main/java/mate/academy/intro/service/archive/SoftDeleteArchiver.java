@@ -0,0 +1,128 @@
+package mate.academy.intro.service.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ConditionalOnProperty(name = "book.archive.enabled", havingValue = "true", matchIfMissing = true)
+@Component
+public class SoftDeleteArchiver {
+    private static final String SOFT_DELETED = "is_deleted = true AND deleted_at < :cutoff";
+    private static final List<ArchivedTable> TABLES = List.of(
+            new ArchivedTable("order_items",
+                    "id, order_id, book_id, quantity, price, deleted_at",
+                    "(" + SOFT_DELETED + ") OR order_id IN (SELECT o.id FROM orders o "
+                            + "WHERE o.is_deleted = true AND o.deleted_at < :cutoff)"),
+            new ArchivedTable("orders",
+                    "id, user_id, status, total, order_date, shipping_address, deleted_at",
+                    SOFT_DELETED + " AND NOT EXISTS (SELECT 1 FROM order_items oi "
+                            + "WHERE oi.order_id = orders.id)"),
+            new ArchivedTable("cart_items",
+                    "id, shopping_cart_id, book_id, quantity, deleted_at",
+                    "(" + SOFT_DELETED + ") OR shopping_cart_id IN (SELECT sc.id "
+                            + "FROM shopping_carts sc "
+                            + "WHERE sc.is_deleted = true AND sc.deleted_at < :cutoff)"),
+            new ArchivedTable("shopping_carts",
+                    "id, user_id, deleted_at",
+                    SOFT_DELETED + " AND NOT EXISTS (SELECT 1 FROM cart_items ci "
+                            + "WHERE ci.shopping_cart_id = shopping_carts.id)"),
+            new ArchivedTable("books",
+                    "id, title, author, isbn, price, description, cover_image, version, deleted_at",
+                    SOFT_DELETED
+                            + " AND NOT EXISTS (SELECT 1 FROM order_items oi "
+                            + "WHERE oi.book_id = books.id)"
+                            + " AND NOT EXISTS (SELECT 1 FROM cart_items ci "
+                            + "WHERE ci.book_id = books.id)",
+                    "books_categories", "book_id, category_id", "book_id"));
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final Map<String, Counter> movedRows = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lagSeconds = new ConcurrentHashMap<>();
+
+    public SoftDeleteArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${book.archive.min-age:30d}") Duration minAge,
+                              @Value("${book.archive.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        for (ArchivedTable table : TABLES) {
+            movedRows.put(table.name(), Counter.builder("book_store.archive.rows")
+                    .tag("table", table.name())
+                    .register(meterRegistry));
+            AtomicLong lag = new AtomicLong();
+            lagSeconds.put(table.name(), lag);
+            Gauge.builder("book_store.archive.lag", lag, AtomicLong::get)
+                    .baseUnit("seconds")
+                    .tag("table", table.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${book.archive.delay:3600000}",
+            fixedDelayString = "${book.archive.delay:3600000}")
+    public void archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(minAge);
+        for (ArchivedTable table : TABLES) {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> moveChunk(table, cutoff, now));
+                movedRows.get(table.name()).increment(moved);
+            } while (moved == chunkSize);
+            lagSeconds.get(table.name()).set(lag(table, cutoff));
+        }
+    }
+
+    private int moveChunk(ArchivedTable table, LocalDateTime cutoff, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", chunkSize);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table.name()
+                        + " WHERE " + table.eligible() + " ORDER BY id LIMIT :limit",
+                parameters, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        parameters.addValue("ids", ids).addValue("now", Timestamp.valueOf(now));
+        if (table.hasLinkTable()) {
+            jdbcTemplate.update("INSERT INTO " + table.linkTable() + "_archive ("
+                    + table.linkColumns() + ", archived_at) SELECT " + table.linkColumns()
+                    + ", :now FROM " + table.linkTable()
+                    + " WHERE " + table.linkKey() + " IN (:ids)", parameters);
+            jdbcTemplate.update("DELETE FROM " + table.linkTable()
+                    + " WHERE " + table.linkKey() + " IN (:ids)", parameters);
+        }
+        jdbcTemplate.update("INSERT INTO " + table.name() + "_archive (" + table.columns()
+                + ", archived_at) SELECT " + table.columns() + ", :now FROM " + table.name()
+                + " WHERE id IN (:ids)", parameters);
+        jdbcTemplate.update("DELETE FROM " + table.name() + " WHERE id IN (:ids)", parameters);
+        return ids.size();
+    }
+
+    private long lag(ArchivedTable table, LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(deleted_at) FROM "
+                        + table.name() + " WHERE " + table.eligible(),
+                Map.of("cutoff", Timestamp.valueOf(cutoff)), Timestamp.class);
+        return oldest == null
+                ? 0 : Duration.between(oldest.toLocalDateTime(), cutoff).toSeconds();
+    }
+}
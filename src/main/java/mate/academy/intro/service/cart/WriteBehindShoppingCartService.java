@@ -0,0 +1,553 @@
+package mate.academy.intro.service.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.CartDeltaDto;
+import mate.academy.intro.dto.CartItemDto;
+import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.CartOperationDto;
+import mate.academy.intro.dto.CartOperationType;
+import mate.academy.intro.dto.ShoppingCartDto;
+import mate.academy.intro.dto.UpdateCartItemDto;
+import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.mapper.ShoppingCartMapper;
+import mate.academy.intro.model.CartItem;
+import mate.academy.intro.model.ShoppingCart;
+import mate.academy.intro.model.User;
+import mate.academy.intro.repository.EntityIdAllocator;
+import mate.academy.intro.repository.ShoppingCartRepository;
+import mate.academy.intro.service.BookService;
+import mate.academy.intro.service.ShoppingCartService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@ConditionalOnProperty(name = "book.cart.write-behind.enabled", havingValue = "true")
+@Service
+public class WriteBehindShoppingCartService implements ShoppingCartService {
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String UPDATE_VERSION = "UPDATE shopping_carts SET version = :version "
+            + "WHERE id = :cartId AND version = :expectedVersion";
+    private static final String INSERT_ITEM = "INSERT INTO cart_items "
+            + "(id, shopping_cart_id, book_id, quantity, is_deleted) "
+            + "VALUES (:id, :cartId, :bookId, :quantity, false)";
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final ShoppingCartMapper shoppingCartMapper;
+    private final BookService bookService;
+    private final EntityIdAllocator entityIdAllocator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long idleTimeoutNanos;
+    private final Map<Long, CachedCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUserIds = ConcurrentHashMap.newKeySet();
+    private final Queue<Long> cartItemIds = new ConcurrentLinkedQueue<>();
+    private final Lock flushLock = new ReentrantLock();
+    private final DistributionSummary flushBatch;
+    private final Timer flushLag;
+    private final Counter flushFailures;
+    private final Counter flushConflicts;
+    private final Counter droppedCarts;
+
+    public WriteBehindShoppingCartService(ShoppingCartRepository shoppingCartRepository,
+                                          ShoppingCartMapper shoppingCartMapper,
+                                          BookService bookService,
+                                          EntityIdAllocator entityIdAllocator,
+                                          NamedParameterJdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${book.cart.write-behind.batch-size:200}")
+                                          int batchSize,
+                                          @Value("${book.cart.write-behind.max-attempts:5}")
+                                          int maxAttempts,
+                                          @Value("${book.cart.write-behind.idle-timeout:30m}")
+                                          Duration idleTimeout) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.shoppingCartMapper = shoppingCartMapper;
+        this.bookService = bookService;
+        this.entityIdAllocator = entityIdAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.flushBatch = DistributionSummary.builder("book_store.cart.flush.batch")
+                .baseUnit("carts")
+                .register(meterRegistry);
+        this.flushLag = Timer.builder("book_store.cart.flush.lag")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("book_store.cart.flush.failures")
+                .register(meterRegistry);
+        this.flushConflicts = Counter.builder("book_store.cart.flush.conflicts")
+                .register(meterRegistry);
+        this.droppedCarts = Counter.builder("book_store.cart.flush.dropped")
+                .register(meterRegistry);
+        Gauge.builder("book_store.cart.dirty", dirtyUserIds, Set::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void createShoppingCartForUser(User user) {
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setUser(user);
+        shoppingCartRepository.save(shoppingCart);
+    }
+
+    @Override
+    public ShoppingCartDto getCartByUser(Long userId) {
+        return apply(userId, CachedCart::toDto);
+    }
+
+    @Override
+    public ShoppingCartDto addItemToCart(Long userId, CartItemRequestDto cartItemRequestDto) {
+        BookDto book = bookService.getBookById(cartItemRequestDto.getBookId());
+        return apply(userId, cart -> {
+            add(cart, book, cartItemRequestDto.getQuantity());
+            return cart.toDto();
+        });
+    }
+
+    @Override
+    public ShoppingCartDto updateItemQuantity(Long userId, Long cartItemId,
+                                              UpdateCartItemDto quantity) {
+        return apply(userId, cart -> {
+            cart.put(cart.get(cartItemId).withQuantity(quantity.getQuantity()));
+            return cart.toDto();
+        });
+    }
+
+    @Override
+    public void removeItem(Long cartItemId, Long userId) {
+        apply(userId, cart -> cart.remove(cart.get(cartItemId)));
+    }
+
+    @Override
+    public CartDeltaDto addItemToCartDelta(Long userId, CartItemRequestDto cartItemRequestDto) {
+        BookDto book = bookService.getBookById(cartItemRequestDto.getBookId());
+        return apply(userId, cart -> cart.toDelta(
+                add(cart, book, cartItemRequestDto.getQuantity())));
+    }
+
+    @Override
+    public CartDeltaDto updateItemQuantityDelta(Long userId, Long cartItemId,
+                                                UpdateCartItemDto quantity) {
+        return apply(userId, cart -> cart.toDelta(
+                cart.put(cart.get(cartItemId).withQuantity(quantity.getQuantity()))));
+    }
+
+    @Override
+    public CartDeltaDto removeItemDelta(Long cartItemId, Long userId) {
+        return apply(userId, cart -> cart.toDelta(
+                cart.remove(cart.get(cartItemId)).withQuantity(0)));
+    }
+
+    @Override
+    public ShoppingCartDto applyOperations(Long userId, List<CartOperationDto> operations) {
+        Map<Long, BookDto> books = operations.stream()
+                .filter(operation -> operation.type() == CartOperationType.ADD)
+                .map(CartOperationDto::bookId)
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), bookService::getBookById));
+        return apply(userId, cart -> {
+            for (CartOperationDto operation : operations) {
+                if (operation.type() == CartOperationType.ADD) {
+                    add(cart, books.get(operation.bookId()), operation.quantity());
+                } else if (operation.type() == CartOperationType.SET_QUANTITY) {
+                    cart.put(cart.get(operation.cartItemId())
+                            .withQuantity(operation.quantity()));
+                } else {
+                    cart.remove(cart.get(operation.cartItemId()));
+                }
+            }
+            return cart.toDto();
+        });
+    }
+
+    @Override
+    public void flushCart(Long userId) {
+        CachedCart cart = carts.get(userId);
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            if (cart.isDirty()) {
+                try {
+                    markWritten(writeTogether(List.of(cart.snapshot())));
+                } catch (RuntimeException e) {
+                    flushFailures.increment();
+                    throw e;
+                }
+            }
+            drop(cart);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${book.cart.write-behind.flush-interval:1000}",
+            fixedDelayString = "${book.cart.write-behind.flush-interval:1000}")
+    public void flush() {
+        List<Snapshot> batch;
+        do {
+            batch = nextBatch();
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } while (batch.size() == batchSize);
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private <T> T apply(Long userId, Function<CachedCart, T> change) {
+        while (true) {
+            CachedCart cart = cached(userId);
+            synchronized (cart) {
+                if (!cart.detached) {
+                    Snapshot before = cart.snapshot();
+                    T result;
+                    try {
+                        result = change.apply(cart);
+                    } catch (RuntimeException e) {
+                        cart.restore(before);
+                        throw e;
+                    }
+                    cart.lastAccess = System.nanoTime();
+                    if (cart.isDirty()) {
+                        dirtyUserIds.add(userId);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    private CartLine add(CachedCart cart, BookDto book, int quantity) {
+        CartLine line = cart.findByBookId(book.getId());
+        if (line == null) {
+            return cart.put(new CartLine(nextCartItemId(), book.getId(), book.getTitle(),
+                    quantity));
+        }
+        return cart.put(line.withQuantity(line.quantity() + quantity));
+    }
+
+    private CachedCart cached(Long userId) {
+        CachedCart cart = carts.get(userId);
+        if (cart != null) {
+            return cart;
+        }
+        CachedCart loaded = load(userId);
+        if (loaded == null) {
+            throw new EntityNotFoundException("Shopping cart not found for user:" + userId);
+        }
+        CachedCart existing = carts.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private CachedCart load(Long userId) {
+        return shoppingCartRepository.findByUserId(userId)
+                .map(shoppingCart -> new CachedCart(
+                        shoppingCartMapper.toShoppingCartDto(shoppingCart),
+                        shoppingCart.getVersion()))
+                .orElse(null);
+    }
+
+    private Long nextCartItemId() {
+        Long id = cartItemIds.poll();
+        while (id == null) {
+            cartItemIds.addAll(transactionTemplate.execute(status ->
+                    entityIdAllocator.allocate(CartItem.class, ID_BLOCK_SIZE)));
+            id = cartItemIds.poll();
+        }
+        return id;
+    }
+
+    private List<Snapshot> nextBatch() {
+        List<Snapshot> batch = new ArrayList<>(batchSize);
+        Iterator<Long> iterator = dirtyUserIds.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            CachedCart cart = carts.get(iterator.next());
+            iterator.remove();
+            if (cart != null) {
+                synchronized (cart) {
+                    batch.add(cart.snapshot());
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<Snapshot> batch) {
+        try {
+            markWritten(writeTogether(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0));
+                return;
+            }
+            for (Snapshot snapshot : batch) {
+                try {
+                    markWritten(writeTogether(List.of(snapshot)));
+                } catch (RuntimeException cartFailure) {
+                    failed(snapshot);
+                }
+            }
+        }
+    }
+
+    private FlushResult writeTogether(List<Snapshot> batch) {
+        flushLock.lock();
+        try {
+            List<Snapshot> pending = batch.stream()
+                    .filter(snapshot -> snapshot.changes() > snapshot.cart().writtenChanges)
+                    .toList();
+            if (pending.isEmpty()) {
+                return new FlushResult(pending, List.of());
+            }
+            SqlParameterSource[] versions = pending.stream()
+                    .map(snapshot -> new MapSqlParameterSource()
+                            .addValue("version", snapshot.cart().versionAt(snapshot.changes()))
+                            .addValue("expectedVersion", snapshot.cart()
+                                    .versionAt(snapshot.cart().writtenChanges))
+                            .addValue("cartId", snapshot.cart().id))
+                    .toArray(SqlParameterSource[]::new);
+            FlushResult result = transactionTemplate.execute(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_VERSION, versions);
+                List<Snapshot> written = new ArrayList<>();
+                List<Snapshot> conflicts = new ArrayList<>();
+                for (int i = 0; i < pending.size(); i++) {
+                    if (updated[i] == 0) {
+                        conflicts.add(pending.get(i));
+                    } else {
+                        written.add(pending.get(i));
+                    }
+                }
+                if (!written.isEmpty()) {
+                    jdbcTemplate.update("DELETE FROM cart_items "
+                                    + "WHERE shopping_cart_id IN (:cartIds)",
+                            Map.of("cartIds", written.stream()
+                                    .map(snapshot -> snapshot.cart().id)
+                                    .toList()));
+                    jdbcTemplate.batchUpdate(INSERT_ITEM, written.stream()
+                            .flatMap(snapshot -> snapshot.lines().stream()
+                                    .map(line -> new MapSqlParameterSource()
+                                            .addValue("id", line.id())
+                                            .addValue("cartId", snapshot.cart().id)
+                                            .addValue("bookId", line.bookId())
+                                            .addValue("quantity", line.quantity())))
+                            .toArray(SqlParameterSource[]::new));
+                }
+                return new FlushResult(written, conflicts);
+            });
+            result.written().forEach(snapshot ->
+                    snapshot.cart().writtenChanges = snapshot.changes());
+            flushBatch.record(result.written().size());
+            return result;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void markWritten(FlushResult result) {
+        long now = System.nanoTime();
+        for (Snapshot snapshot : result.written()) {
+            synchronized (snapshot.cart()) {
+                flushLag.record(now - snapshot.dirtySince(), TimeUnit.NANOSECONDS);
+                snapshot.cart().markFlushed(snapshot.changes());
+                snapshot.cart().failedFlushes = 0;
+            }
+        }
+        for (Snapshot snapshot : result.conflicts()) {
+            flushConflicts.increment();
+            log.warn("Dropped unflushed changes to cart {} of user {}: the cart was changed "
+                            + "elsewhere since version {}; {} lines were not written",
+                    snapshot.cart().id, snapshot.cart().userId,
+                    snapshot.cart().versionAt(snapshot.cart().writtenChanges),
+                    snapshot.lines().size());
+            synchronized (snapshot.cart()) {
+                drop(snapshot.cart());
+            }
+        }
+    }
+
+    private void failed(Snapshot snapshot) {
+        flushFailures.increment();
+        CachedCart cart = snapshot.cart();
+        synchronized (cart) {
+            if (++cart.failedFlushes < maxAttempts) {
+                dirtyUserIds.add(cart.userId);
+            } else {
+                droppedCarts.increment();
+                log.error("Dropped unflushed changes to cart {} of user {} after {} failed "
+                        + "flushes; {} lines were not written", cart.id, cart.userId,
+                        cart.failedFlushes, snapshot.lines().size());
+                drop(cart);
+            }
+        }
+    }
+
+    private void drop(CachedCart cart) {
+        cart.detached = true;
+        carts.remove(cart.userId, cart);
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (!cart.isDirty() && now - cart.lastAccess > idleTimeoutNanos) {
+                    drop(cart);
+                }
+            }
+        });
+    }
+
+    private record CartLine(Long id, Long bookId, String bookTitle, int quantity) {
+        private CartLine withQuantity(int quantity) {
+            return new CartLine(id, bookId, bookTitle, quantity);
+        }
+
+        private CartItemDto toDto() {
+            CartItemDto dto = new CartItemDto();
+            dto.setId(id);
+            dto.setBookId(bookId);
+            dto.setBookTitle(bookTitle);
+            dto.setQuantity(quantity);
+            return dto;
+        }
+    }
+
+    private record Snapshot(CachedCart cart, List<CartLine> lines, long changes,
+                            long dirtySince) {
+    }
+
+    private record FlushResult(List<Snapshot> written, List<Snapshot> conflicts) {
+    }
+
+    private static final class CachedCart {
+        private final Long id;
+        private final Long userId;
+        private final long baseVersion;
+        private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+        private long changes;
+        private long flushedChanges;
+        private long dirtySince;
+        private long lastAccess = System.nanoTime();
+        private int failedFlushes;
+        private volatile long writtenChanges;
+        private boolean detached;
+
+        private CachedCart(ShoppingCartDto dto, long baseVersion) {
+            this.id = dto.getId();
+            this.baseVersion = baseVersion;
+            this.userId = dto.getUserId();
+            dto.getCartItems().forEach(item -> lines.put(item.getId(), new CartLine(item.getId(),
+                    item.getBookId(), item.getBookTitle(), item.getQuantity())));
+        }
+
+        private CartLine get(Long cartItemId) {
+            CartLine line = lines.get(cartItemId);
+            if (line == null) {
+                throw new EntityNotFoundException("Cart item not found:" + cartItemId);
+            }
+            return line;
+        }
+
+        private CartLine findByBookId(Long bookId) {
+            return lines.values().stream()
+                    .filter(line -> line.bookId().equals(bookId))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        private CartLine put(CartLine line) {
+            lines.put(line.id(), line);
+            changed();
+            return line;
+        }
+
+        private CartLine remove(CartLine line) {
+            lines.remove(line.id());
+            changed();
+            return line;
+        }
+
+        private void changed() {
+            if (!isDirty()) {
+                dirtySince = System.nanoTime();
+            }
+            changes++;
+        }
+
+        private boolean isDirty() {
+            return changes > flushedChanges;
+        }
+
+        private void markFlushed(long flushed) {
+            flushedChanges = Math.max(flushedChanges, flushed);
+        }
+
+        private void restore(Snapshot snapshot) {
+            lines.clear();
+            snapshot.lines().forEach(line -> lines.put(line.id(), line));
+            changes = snapshot.changes();
+            dirtySince = snapshot.dirtySince();
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(this, List.copyOf(lines.values()), changes, dirtySince);
+        }
+
+        private long versionAt(long changeCount) {
+            return baseVersion + changeCount;
+        }
+
+        private CartDeltaDto toDelta(CartLine line) {
+            return new CartDeltaDto(line.toDto(), versionAt(changes), lines.size());
+        }
+
+        private ShoppingCartDto toDto() {
+            ShoppingCartDto dto = new ShoppingCartDto();
+            dto.setId(id);
+            dto.setUserId(userId);
+            Set<CartItemDto> items = new HashSet<>();
+            lines.values().forEach(line -> items.add(line.toDto()));
+            dto.setCartItems(items);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package mate.academy.intro.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import mate.academy.intro.dto.OrderResponseDto;
+import mate.academy.intro.exception.DataProcessingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IdempotencyKeyStore {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public IdempotencyKeyStore(NamedParameterJdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${book.idempotency.ttl:24h}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public Optional<OrderResponseDto> find(Long userId, String key) {
+        List<String> responses = jdbcTemplate.queryForList("SELECT response "
+                        + "FROM idempotency_keys WHERE user_id = :userId "
+                        + "AND idempotency_key = :key AND expires_at > :now",
+                parameters(userId, key, LocalDateTime.now()), String.class);
+        return responses.stream().findFirst().map(this::read);
+    }
+
+    public void save(Long userId, String key, OrderResponseDto response) {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource parameters = parameters(userId, key, now)
+                .addValue("response", write(response))
+                .addValue("expiresAt", Timestamp.valueOf(now.plus(ttl)));
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = :userId "
+                + "AND idempotency_key = :key AND expires_at <= :now", parameters);
+        jdbcTemplate.update("INSERT INTO idempotency_keys "
+                + "(user_id, idempotency_key, response, created_at, expires_at) "
+                + "VALUES (:userId, :key, :response, :now, :expiresAt)", parameters);
+    }
+
+    @Scheduled(initialDelayString = "${book.idempotency.cleanup-interval:600000}",
+            fixedDelayString = "${book.idempotency.cleanup-interval:600000}")
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= :now",
+                Map.of("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    private MapSqlParameterSource parameters(Long userId, String key, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("key", key)
+                .addValue("now", Timestamp.valueOf(now));
+    }
+
+    private String write(OrderResponseDto response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new DataProcessingException("Can't serialize order response "
+                    + response.getId(), e);
+        }
+    }
+
+    private OrderResponseDto read(String response) {
+        try {
+            return objectMapper.readValue(response, OrderResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new DataProcessingException("Can't deserialize stored order response", e);
+        }
+    }
+}
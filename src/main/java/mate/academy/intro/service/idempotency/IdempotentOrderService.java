@@ -0,0 +1,112 @@
+package mate.academy.intro.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import mate.academy.intro.dto.OrderRequestDto;
+import mate.academy.intro.dto.OrderResponseDto;
+import mate.academy.intro.exception.InvalidIdempotencyKeyException;
+import mate.academy.intro.retry.RetryOnConflict;
+import mate.academy.intro.service.OrderService;
+import mate.academy.intro.service.ShoppingCartService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RetryOnConflict
+@Component
+public class IdempotentOrderService {
+    private static final int MAX_KEY_LENGTH = 255;
+    private final OrderService orderService;
+    private final ShoppingCartService shoppingCartService;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, OrderResponseDto> responses;
+    private final Map<String, CompletableFuture<OrderResponseDto>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public IdempotentOrderService(OrderService orderService,
+                                  ShoppingCartService shoppingCartService,
+                                  IdempotencyKeyStore idempotencyKeyStore,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${book.idempotency.cache-size:10000}")
+                                  long cacheSize) {
+        this.orderService = orderService;
+        this.shoppingCartService = shoppingCartService;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(idempotencyKeyStore.getTtl())
+                .build();
+    }
+
+    public OrderResponseDto placeOrder(OrderRequestDto orderRequestDto, Long userId,
+                                       String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to "
+                    + MAX_KEY_LENGTH + " characters long");
+        }
+        String scopedKey = userId + ":" + idempotencyKey;
+        OrderResponseDto cached = responses.getIfPresent(scopedKey);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<OrderResponseDto> pending = new CompletableFuture<>();
+        CompletableFuture<OrderResponseDto> first = inFlight.putIfAbsent(scopedKey, pending);
+        if (first != null) {
+            return await(first);
+        }
+        try {
+            OrderResponseDto response = place(orderRequestDto, userId, idempotencyKey);
+            responses.put(scopedKey, response);
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, pending);
+        }
+    }
+
+    private OrderResponseDto place(OrderRequestDto orderRequestDto, Long userId,
+                                   String idempotencyKey) {
+        shoppingCartService.flushCart(userId);
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<OrderResponseDto> stored =
+                        idempotencyKeyStore.find(userId, idempotencyKey);
+                if (stored.isPresent()) {
+                    return stored.get();
+                }
+                OrderResponseDto response = orderService.placeOrder(orderRequestDto, userId);
+                idempotencyKeyStore.save(userId, idempotencyKey, response);
+                return response;
+            });
+        } catch (DuplicateKeyException e) {
+            Optional<OrderResponseDto> stored = idempotencyKeyStore.find(userId, idempotencyKey);
+            if (stored.isEmpty()) {
+                throw e;
+            }
+            return stored.get();
+        }
+    }
+
+    private OrderResponseDto await(CompletableFuture<OrderResponseDto> first) {
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
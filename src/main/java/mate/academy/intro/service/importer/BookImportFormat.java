@@ -0,0 +1,49 @@
+package mate.academy.intro.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import mate.academy.intro.exception.InvalidImportFileException;
+
+public enum BookImportFormat {
+    CSV(".csv"),
+    NDJSON(".ndjson");
+
+    private final String extension;
+
+    BookImportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static BookImportFormat fromFileName(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new InvalidImportFileException("Unsupported import file: " + fileName
+                + ", expected .csv or .ndjson");
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public BookRecordReader open(Path file, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return this == CSV
+                    ? new CsvBookRecordReader(reader)
+                    : new NdjsonBookRecordReader(reader, objectMapper);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+}
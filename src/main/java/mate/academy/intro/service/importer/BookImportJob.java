@@ -0,0 +1,78 @@
+package mate.academy.intro.service.importer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import mate.academy.intro.dto.BookImportErrorDto;
+import mate.academy.intro.dto.BookImportJobDto;
+
+public class BookImportJob {
+    private static final int MAX_ERRORS = 1000;
+    private final String id = UUID.randomUUID().toString();
+    private final String fileName;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<BookImportErrorDto> errors = new ArrayList<>();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public BookImportJob(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    public void recordProcessed() {
+        processed.incrementAndGet();
+    }
+
+    public void recordImported(int count) {
+        imported.addAndGet(count);
+    }
+
+    public void recordFailure(long line, String message) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new BookImportErrorDto(line, message));
+            }
+        }
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    public void fail(String message) {
+        synchronized (errors) {
+            errors.add(new BookImportErrorDto(0, message));
+        }
+        finishedAt = LocalDateTime.now();
+        status = ImportJobStatus.FAILED;
+    }
+
+    public BookImportJobDto toDto() {
+        List<BookImportErrorDto> errorsCopy;
+        synchronized (errors) {
+            errorsCopy = List.copyOf(errors);
+        }
+        return new BookImportJobDto(id, fileName, status, processed.get(), imported.get(),
+                failed.get(), errorsCopy, startedAt, finishedAt);
+    }
+}
@@ -0,0 +1,39 @@
+package mate.academy.intro.service.importer;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookImportJobRegistry {
+    private static final int MAX_FINISHED_JOBS = 100;
+    private final Map<String, BookImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BookImportJob create(String fileName) {
+        evictFinishedJobs();
+        BookImportJob job = new BookImportJob(fileName);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public Optional<BookImportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public void remove(String id) {
+        jobs.remove(id);
+    }
+
+    private void evictFinishedJobs() {
+        long finished = jobs.values().stream().filter(BookImportJob::isFinished).count();
+        Iterator<BookImportJob> iterator = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package mate.academy.intro.service.importer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.EntityIdAllocator;
+import mate.academy.intro.service.BookCacheEvictor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RequiredArgsConstructor
+@Component
+public class BookImportWriter {
+    private static final String INSERT_BOOK = """
+            INSERT INTO books (id, title, author, isbn, price, description, cover_image)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_BOOK_CATEGORY =
+            "INSERT INTO books_categories (book_id, category_id) VALUES (?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityIdAllocator entityIdAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCacheEvictor bookCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void write(List<BookRecord> records, BookImportJob job) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(records));
+            job.recordImported(records.size());
+        } catch (DataAccessException e) {
+            for (BookRecord record : records) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(record)));
+                    job.recordImported(1);
+                } catch (DataAccessException recordException) {
+                    job.recordFailure(record.line(),
+                            recordException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<BookRecord> records) {
+        List<CreateBookRequestDto> books = records.stream().map(BookRecord::book).toList();
+        Iterator<Long> allocatedIds =
+                entityIdAllocator.allocate(Book.class, books.size()).iterator();
+        Map<String, Long> ids = new HashMap<>();
+        for (CreateBookRequestDto book : books) {
+            ids.put(book.getIsbn(), allocatedIds.next());
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOK, books, books.size(), (statement, book) -> {
+            statement.setLong(1, ids.get(book.getIsbn()));
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.setString(4, book.getIsbn());
+            statement.setBigDecimal(5, book.getPrice());
+            statement.setString(6, book.getDescription());
+            statement.setString(7, book.getCoverImage());
+        });
+        List<long[]> bookCategories = new ArrayList<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (CreateBookRequestDto book : books) {
+            Long bookId = ids.get(book.getIsbn());
+            for (Long categoryId : new HashSet<>(book.getCategoriesId())) {
+                bookCategories.add(new long[]{bookId, categoryId});
+                categoryIds.add(categoryId);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOK_CATEGORY, bookCategories, bookCategories.size(),
+                (statement, bookCategory) -> {
+                    statement.setLong(1, bookCategory[0]);
+                    statement.setLong(2, bookCategory[1]);
+                });
+        bookCacheEvictor.evict(null, categoryIds);
+        for (CreateBookRequestDto book : books) {
+            Long bookId = ids.get(book.getIsbn());
+            eventPublisher.publishEvent(BookChangedEvent.saved(bookId,
+                    new BookDtoWithoutCategoryIds(bookId, book.getTitle(), book.getAuthor(),
+                            book.getDescription(), book.getPrice(), book.getIsbn(),
+                            book.getCoverImage()),
+                    book.getCategoriesId()));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package mate.academy.intro.service.importer;
+
+import mate.academy.intro.dto.CreateBookRequestDto;
+
+public record BookRecord(long line, CreateBookRequestDto book, String error) {
+    public static BookRecord valid(long line, CreateBookRequestDto book) {
+        return new BookRecord(line, book, null);
+    }
+
+    public static BookRecord invalid(long line, String error) {
+        return new BookRecord(line, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
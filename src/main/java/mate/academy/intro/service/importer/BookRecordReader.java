@@ -0,0 +1,8 @@
+package mate.academy.intro.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface BookRecordReader extends Closeable {
+    BookRecord next() throws IOException;
+}
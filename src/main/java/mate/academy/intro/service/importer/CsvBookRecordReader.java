@@ -0,0 +1,113 @@
+package mate.academy.intro.service.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.exception.InvalidImportFileException;
+
+public class CsvBookRecordReader implements BookRecordReader {
+    private static final List<String> COLUMNS = List.of("title", "author", "isbn", "price",
+            "description", "coverImage", "categoryIds");
+    private static final String CATEGORY_SEPARATOR = ";";
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+    private final BufferedReader reader;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private long line;
+
+    public CsvBookRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = reader.readLine();
+        line++;
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        List<String> names = parse(header.replace(BYTE_ORDER_MARK, ""));
+        for (int i = 0; i < names.size(); i++) {
+            columnIndexes.put(names.get(i).strip(), i);
+        }
+        List<String> missing = COLUMNS.stream()
+                .filter(column -> !columnIndexes.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing columns: " + missing);
+        }
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        String value;
+        do {
+            value = reader.readLine();
+            line++;
+            if (value == null) {
+                return null;
+            }
+        } while (value.isBlank());
+        List<String> fields = parse(value);
+        if (fields.size() < columnIndexes.size()) {
+            return BookRecord.invalid(line, "Expected " + columnIndexes.size()
+                    + " columns but found " + fields.size());
+        }
+        try {
+            CreateBookRequestDto book = new CreateBookRequestDto();
+            book.setTitle(field(fields, "title"));
+            book.setAuthor(field(fields, "author"));
+            book.setIsbn(field(fields, "isbn"));
+            book.setPrice(new BigDecimal(field(fields, "price")));
+            book.setDescription(field(fields, "description"));
+            book.setCoverImage(field(fields, "coverImage"));
+            book.setCategoriesId(Arrays.stream(field(fields, "categoryIds")
+                            .split(CATEGORY_SEPARATOR))
+                    .map(String::strip)
+                    .filter(id -> !id.isEmpty())
+                    .map(Long::valueOf)
+                    .toList());
+            return BookRecord.valid(line, book);
+        } catch (NumberFormatException e) {
+            return BookRecord.invalid(line, "Invalid number: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String field(List<String> fields, String column) {
+        return fields.get(columnIndexes.get(column)).strip();
+    }
+
+    private static List<String> parse(String value) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < value.length() && value.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
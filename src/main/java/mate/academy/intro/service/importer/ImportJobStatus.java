@@ -0,0 +1,8 @@
+package mate.academy.intro.service.importer;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,41 @@
+package mate.academy.intro.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import mate.academy.intro.dto.CreateBookRequestDto;
+
+public class NdjsonBookRecordReader implements BookRecordReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonBookRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        String value;
+        do {
+            value = reader.readLine();
+            line++;
+            if (value == null) {
+                return null;
+            }
+        } while (value.isBlank());
+        try {
+            return BookRecord.valid(line,
+                    objectMapper.readValue(value, CreateBookRequestDto.class));
+        } catch (JsonProcessingException e) {
+            return BookRecord.invalid(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -3,26 +3,47 @@ package mate.academy.intro.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import mate.academy.intro.dto.AuthorFacetDto;
+import mate.academy.intro.dto.BookBatchOperationDto;
+import mate.academy.intro.dto.BookBatchOperationType;
+import mate.academy.intro.dto.BookBatchRequestDto;
+import mate.academy.intro.dto.BookBatchResultDto;
 import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.BookImportJobDto;
+import mate.academy.intro.dto.BookSearchResultDto;
+import mate.academy.intro.dto.CategoryFacetDto;
 import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.dto.CursorPageDto;
+import mate.academy.intro.service.importer.ImportJobStatus;
 import mate.academy.intro.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
@@ -70,10 +91,83 @@ class BookControllerTest {
         List<BookDto> expected = List.of(new BookDto(1L, "Effective Java",
                 "Joshua Bloch", "9780134685991",
                 new BigDecimal("799.00"), "Best Java practices",
-                "https://example.com/effective-java.jpg", List.of(1L, 2L)));
+                "https://example.com/effective-java.jpg", List.of(1L, 2L), null));
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Returns the first cursor page of books sorted by title")
+    @WithMockUser(roles = "USER")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void findAllByCursor_returnFirstPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books")
+                        .param("after", "")
+                        .param("size", "10")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CursorPageDto<BookDto> actual = objectMapper
+                .readValue(result.getResponse().getContentAsString(),
+                        new TypeReference<CursorPageDto<BookDto>>() {});
+
+        assertEquals(1, actual.content().size());
+        assertEquals("Effective Java", actual.content().get(0).getTitle());
+        assertNull(actual.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Rejects a malformed cursor")
+    @WithMockUser(roles = "USER")
+    void findAllByCursor_returnBadRequest_whenCursorInvalid() throws Exception {
+        mockMvc.perform(get("/books")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Follows title cursors across duplicate titles without skipping a book")
+    @WithMockUser(roles = "USER")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books-for-cursor.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void findAllByCursor_sortedByTitle_returnEveryBookOnce() throws Exception {
+        assertEquals(List.of(4L, 2L, 5L, 1L, 3L, 6L, 7L), readAllCursorPages("title"));
+    }
+
+    @Test
+    @DisplayName("Follows price cursors across duplicate prices without skipping a book")
+    @WithMockUser(roles = "USER")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books-for-cursor.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void findAllByCursor_sortedByPrice_returnEveryBookOnce() throws Exception {
+        assertEquals(List.of(6L, 2L, 3L, 7L, 1L, 4L, 5L), readAllCursorPages("price"));
+    }
+
+    @Test
+    @DisplayName("Rejects a well-encoded cursor whose sort value does not parse")
+    @WithMockUser(roles = "USER")
+    void findAllByCursor_returnBadRequest_whenCursorValueInvalid() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("PRICE:3:cheap".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/books")
+                        .param("after", cursor)
+                        .param("sort", "price"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Does not return a list of books without registration")
     void findAll_withoutAuthentication_returnsUnauthorized() throws Exception {
@@ -108,6 +202,27 @@ class BookControllerTest {
         assertEquals(expected,actual);
     }
 
+    @Test
+    @DisplayName("Returns 304 when the book version matches If-None-Match")
+    @WithMockUser(roles = "USER")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getBookById_returnNotModified_whenETagMatches() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", etag);
+
+        mockMvc.perform(get("/books/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("Does not find books with an ID that does not exist")
     @WithMockUser(roles = "USER")
@@ -129,7 +244,8 @@ class BookControllerTest {
     void save_validRequestDto_returnSuccess() throws Exception {
         CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
 
-        BookDto expected = TestUtil.createBookDto(1L);
+        // id_generators is seeded one block past MAX(id), so an empty table starts at 2
+        BookDto expected = TestUtil.createBookDto(2L);
 
         String jsonRequest = objectMapper.writeValueAsString(requestDto);
         MvcResult result = mockMvc.perform(post("/books")
@@ -195,6 +311,26 @@ class BookControllerTest {
         BookDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
                 BookDto.class);
         assertEquals(expected, actual);
+        assertEquals("\"1\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Return PRECONDITION_FAILED when If-Match carries a stale version")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void updateBook_returnPreconditionFailed_whenVersionStale() throws Exception {
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+
+        mockMvc.perform(put("/books/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
@@ -257,6 +393,60 @@ class BookControllerTest {
         assertEquals("Joshua Bloch", firstBook.getAuthor());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Book search filters by price range and category")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooks_filterByPriceAndCategory() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("minPrice", "700")
+                        .param("maxPrice", "800")
+                        .param("categoryIds", "1", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<BookDto> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<List<BookDto>>() {});
+        assertEquals(1, actual.size());
+        assertEquals(List.of(1L, 2L), actual.get(0).getCategoryIds());
+
+        result = mockMvc.perform(get("/books/search")
+                        .param("maxPrice", "500"))
+                .andExpect(status().isOk())
+                .andReturn();
+        actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<List<BookDto>>() {});
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Book search with facets returns category and author counts")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooksWithFacets_returnFacetCounts() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("author", "Joshua Bloch")
+                        .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookSearchResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookSearchResultDto.class);
+
+        assertEquals(1, actual.content().size());
+        assertEquals(List.of(new CategoryFacetDto(2L, "Java", 1L),
+                new CategoryFacetDto(1L, "Programming", 1L)), actual.facets().categories());
+        assertEquals(List.of(new AuthorFacetDto("Joshua Bloch", 1L)), actual.facets().authors());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     @DisplayName("Book search returns an empty list if no books are found")
@@ -266,4 +456,197 @@ class BookControllerTest {
                         .param("author", "Nobody"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Book search by cursor returns a keyset page of matches")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void searchBooksByCursor_returnFirstPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("author", "Joshua Bloch")
+                        .param("after", "")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CursorPageDto<BookDto> actual = objectMapper
+                .readValue(result.getResponse().getContentAsString(),
+                        new TypeReference<CursorPageDto<BookDto>>() {});
+
+        assertEquals(1, actual.content().size());
+        assertEquals("Joshua Bloch", actual.content().get(0).getAuthor());
+        assertNull(actual.nextCursor());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Book search stream returns matches as newline-delimited JSON")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void streamSearchBooks_returnNdjson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/books/search/stream")
+                        .param("title", "Effective Java"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("Effective Java", objectMapper.readValue(lines[0], BookDto.class).getTitle());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Catalog export streams every book as newline-delimited JSON")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void exportBooks_returnNdjson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        BookDto actual = objectMapper.readValue(lines[0], BookDto.class);
+        assertEquals("Effective Java", actual.getTitle());
+        assertEquals(List.of(1L, 2L), actual.getCategoryIds());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Catalog export streams several chunks under the configured async timeout")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books-for-export.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void exportBooks_moreThanOneChunk_streamEveryBook() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(),
+                asyncResult.getRequest().getAsyncContext().getTimeout());
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1201, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(i + 1L, objectMapper.readValue(lines[i], BookDto.class).getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Book import runs in the background and reports rejected rows")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/categories/add-categories.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void importBooks_importValidRowsAndReportErrors() throws Exception {
+        String csv = """
+                title,author,isbn,price,description,coverImage,categoryIds
+                "Dune, Deluxe",Frank Herbert,9780441013593,19.99,Desert planet,dune.jpg,1
+                Broken,Nobody,123,5,Bad isbn,broken.jpg,1
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        MvcResult result = mockMvc.perform(multipart("/books/import").file(file))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        BookImportJobDto job = objectMapper.readValue(result.getResponse().getContentAsString(),
+                BookImportJobDto.class);
+
+        for (int attempt = 0; attempt < 50 && job.finishedAt() == null; attempt++) {
+            Thread.sleep(100);
+            result = mockMvc.perform(get("/books/import/" + job.id()))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            job = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    BookImportJobDto.class);
+        }
+
+        assertEquals(ImportJobStatus.COMPLETED, job.status());
+        assertEquals(2, job.processed());
+        assertEquals(1, job.imported());
+        assertEquals(1, job.failed());
+        assertEquals(3, job.errors().get(0).line());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Book batch applies creates, updates and deletes in one request")
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/add-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void applyBatch_returnResultPerOperation() throws Exception {
+        CreateBookRequestDto created = TestUtil.createBookRequestDto();
+        created.setIsbn("9780441013593");
+        created.setTitle("Dune");
+        BookBatchRequestDto requestDto = new BookBatchRequestDto(List.of(
+                new BookBatchOperationDto(BookBatchOperationType.CREATE, null, null, created),
+                new BookBatchOperationDto(BookBatchOperationType.DELETE, 1L, null, null),
+                new BookBatchOperationDto(BookBatchOperationType.DELETE, 999L, null, null)));
+
+        MvcResult result = mockMvc.perform(post("/books/batch")
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<BookBatchResultDto> actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                new TypeReference<List<BookBatchResultDto>>() {});
+
+        assertEquals(List.of(201, 204, 404),
+                actual.stream().map(BookBatchResultDto::status).toList());
+        assertEquals("Dune", actual.get(0).book().getTitle());
+        assertEquals(1L, actual.get(1).id());
+    }
+
+    private List<Long> readAllCursorPages(String sort) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/books")
+                            .param("after", cursor)
+                            .param("size", "2")
+                            .param("sort", sort))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            CursorPageDto<BookDto> page = objectMapper
+                    .readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<CursorPageDto<BookDto>>() {});
+            assertTrue(page.content().size() <= 2);
+            page.content().forEach(book -> ids.add(book.getId()));
+            cursor = page.nextCursor();
+            assertTrue(++pages <= 4, "Cursor pagination did not terminate");
+        } while (cursor != null);
+        return ids;
+    }
 }
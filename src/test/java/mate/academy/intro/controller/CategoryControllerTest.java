@@ -1,6 +1,7 @@
 package mate.academy.intro.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -8,6 +9,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import mate.academy.intro.dto.CategoryDto;
 import mate.academy.intro.dto.CreateCategoryRequestDto;
@@ -46,7 +48,8 @@ class CategoryControllerTest {
     @WithMockUser(roles = "ADMIN")
     void createCategory_returnCreated_success() throws Exception {
         CreateCategoryRequestDto requestDto = TestUtil.createCategoryRequestDto();
-        CategoryDto expected = TestUtil.createCategoryDto(1L);
+        // id_generators is seeded one block past MAX(id), so an empty table starts at 2
+        CategoryDto expected = TestUtil.createCategoryDto(2L);
         String jsonRequest = objectMapper.writeValueAsString(requestDto);
         MvcResult result = mockMvc.perform(post("/categories")
                 .content(jsonRequest)
@@ -195,4 +198,40 @@ class CategoryControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("Returns category books page by page with a next cursor")
+    @WithMockUser(roles = "USER")
+    @Sql(scripts = {"classpath:database/categories/delete-categories.sql",
+            "classpath:database/books/add-books.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = {
+            "INSERT INTO books (id, title, author, isbn, price, description, cover_image) "
+                    + "VALUES (2, 'Clean Code', 'Robert Martin', '9780132350884', 599, "
+                    + "'Clean code practices', 'https://example.com/clean-code.jpg')",
+            "INSERT INTO books_categories (book_id, category_id) VALUES (2, 1)"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/books/delete-books.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getBooksByCategoryIdByCursor_returnPagesInIdOrder() throws Exception {
+        MvcResult firstResult = mockMvc.perform(get("/categories/1/books")
+                        .param("after", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode firstPage = objectMapper.readTree(firstResult.getResponse().getContentAsString());
+        assertEquals(1, firstPage.get("content").size());
+        assertEquals(1L, firstPage.get("content").get(0).get("id").asLong());
+        assertTrue(firstPage.hasNonNull("nextCursor"));
+
+        MvcResult secondResult = mockMvc.perform(get("/categories/1/books")
+                        .param("after", firstPage.get("nextCursor").asText())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode secondPage =
+                objectMapper.readTree(secondResult.getResponse().getContentAsString());
+        assertEquals(2L, secondPage.get("content").get(0).get("id").asLong());
+        assertTrue(secondPage.get("nextCursor").isNull());
+    }
 }
@@ -4,15 +4,21 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 import java.util.Set;
+import mate.academy.intro.dto.CartBatchRequestDto;
+import mate.academy.intro.dto.CartDeltaDto;
 import mate.academy.intro.dto.CartItemDto;
 import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.CartOperationDto;
+import mate.academy.intro.dto.CartOperationType;
 import mate.academy.intro.dto.ShoppingCartDto;
 import mate.academy.intro.dto.UpdateCartItemDto;
 import mate.academy.intro.model.User;
@@ -128,6 +134,46 @@ class ShoppingCartControllerTest {
         assertEquals(shoppingCartDto, actual);
     }
 
+    @Test
+    @DisplayName("Adding a book already in the cart increases its quantity")
+    @Sql(scripts = "classpath:database/cartItems/add-cartItems.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/shoppingCarts/delete-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void addItemToCart_existingBook_mergesQuantity() throws Exception {
+        CartItemRequestDto requestDto = new CartItemRequestDto();
+        requestDto.setBookId(1L);
+        requestDto.setQuantity(3);
+
+        MvcResult result = mockMvc.perform(post("/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        ShoppingCartDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                ShoppingCartDto.class);
+        assertEquals(1, actual.getCartItems().size());
+        assertEquals(5, actual.getCartItems().iterator().next().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Return NotFound when adding a book that does not exist")
+    @Sql(scripts = "classpath:database/shoppingCarts/add-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/shoppingCarts/delete-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void addItemToCart_notFound_bookNotExist() throws Exception {
+        CartItemRequestDto requestDto = new CartItemRequestDto();
+        requestDto.setBookId(999L);
+        requestDto.setQuantity(1);
+
+        mockMvc.perform(post("/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Return BadRequest for missing book id")
     void addItemToCart_badRequest_missingBookId() throws Exception {
@@ -209,4 +255,96 @@ class ShoppingCartControllerTest {
         mockMvc.perform(delete("/cart/cart-items/{cartItemId}", 999L))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Applies an ordered list of cart operations and returns the final cart")
+    @Sql(scripts = "classpath:database/cartItems/add-cartItems.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/shoppingCarts/delete-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void applyOperations_orderedOperations_success() throws Exception {
+        final CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartOperationDto(CartOperationType.SET_QUANTITY, null, 1L, 4),
+                new CartOperationDto(CartOperationType.REMOVE, null, 1L, null),
+                new CartOperationDto(CartOperationType.ADD, 1L, null, 3)));
+
+        CartItemDto expectedCartItem = new CartItemDto();
+        expectedCartItem.setBookId(1L);
+        expectedCartItem.setBookTitle("Effective Java");
+        expectedCartItem.setQuantity(3);
+
+        ShoppingCartDto expected = new ShoppingCartDto();
+        expected.setId(1L);
+        expected.setUserId(1L);
+        expected.setCartItems(Set.of(expectedCartItem));
+
+        MvcResult result = mockMvc.perform(patch("/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ShoppingCartDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                ShoppingCartDto.class);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Return BadRequest for an operation without its target")
+    void applyOperations_badRequest_missingCartItemId() throws Exception {
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartOperationDto(CartOperationType.SET_QUANTITY, null, null, 4)));
+
+        mockMvc.perform(patch("/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Returns only the changed item with Prefer: return=minimal")
+    @Sql(scripts = "classpath:database/cartItems/add-cartItems.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/shoppingCarts/delete-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void addItemToCart_preferMinimal_returnsDelta() throws Exception {
+        CartItemRequestDto requestDto = new CartItemRequestDto();
+        requestDto.setBookId(1L);
+        requestDto.setQuantity(3);
+
+        MvcResult result = mockMvc.perform(post("/cart")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andReturn();
+
+        CartDeltaDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                CartDeltaDto.class);
+        assertEquals(1L, actual.item().getId());
+        assertEquals(5, actual.item().getQuantity());
+        assertEquals(1L, actual.cartVersion());
+        assertEquals(1L, actual.itemCount());
+    }
+
+    @Test
+    @DisplayName("Returns the removed item when the minimal flag is set")
+    @Sql(scripts = "classpath:database/cartItems/add-cartItems.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/shoppingCarts/delete-shoppingCarts.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void deleteItem_minimalFlag_returnsDelta() throws Exception {
+        MvcResult result = mockMvc.perform(delete("/cart/cart-items/{cartItemId}", 1L)
+                        .param("minimal", "true"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CartDeltaDto actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                CartDeltaDto.class);
+        assertEquals(1L, actual.item().getId());
+        assertEquals(0, actual.item().getQuantity());
+        assertEquals(1L, actual.cartVersion());
+        assertEquals(0L, actual.itemCount());
+    }
 }
@@ -0,0 +1,50 @@
+package mate.academy.intro.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import mate.academy.intro.model.Category;
+import mate.academy.intro.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idgenerators;MODE=MySQL")
+class IdGeneratorSeedTest {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Hands out ids after the rows seeded with explicit ids")
+    void save_afterSeededRows_startsAfterMaxId() {
+        final Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+        User user = new User();
+        user.setEmail("new.user@example.com");
+        user.setPassword("password");
+        user.setFirstName("New");
+        user.setLastName("User");
+
+        User saved = userRepository.save(user);
+
+        assertTrue(saved.getId() > maxId,
+                "Expected an id above " + maxId + ", got " + saved.getId());
+    }
+
+    @Test
+    @DisplayName("Hands out positive ids for an empty table")
+    void save_emptyTable_startsAboveZero() {
+        Category category = new Category();
+        category.setName("Fiction");
+
+        Category saved = categoryRepository.save(category);
+
+        assertTrue(saved.getId() > 0, "Expected a positive id, got " + saved.getId());
+    }
+}
@@ -0,0 +1,78 @@
+package mate.academy.intro.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Order;
+import mate.academy.intro.model.OrderItem;
+import mate.academy.intro.model.Status;
+import mate.academy.intro.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(scripts = "classpath:database/shoppingCarts/add-shoppingCarts.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-books.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class OrderRepositoryTest {
+    private static final int ORDER_ITEMS = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void save_orderWithItems_insertsItemsInOneBatch() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Long orderId = transactionTemplate.execute(status -> {
+            Order order = createOrder();
+            orderRepository.saveAndFlush(order);
+            return order.getId();
+        });
+
+        long inserts = statistics.getEntityInsertCount();
+        long preparedStatements = statistics.getPrepareStatementCount();
+        List<OrderItem> items = transactionTemplate.execute(status ->
+                List.copyOf(orderRepository.findById(orderId).orElseThrow().getOrderItems()));
+        assertEquals(ORDER_ITEMS, items.size());
+        assertEquals(ORDER_ITEMS + 1, inserts);
+        assertEquals(2, preparedStatements);
+    }
+
+    private Order createOrder() {
+        Order order = new Order();
+        order.setUser(entityManager.getReference(User.class, 1L));
+        order.setStatus(Status.NEW);
+        order.setShippingAddress("Kyiv");
+        order.setTotal(BigDecimal.valueOf(799 * ORDER_ITEMS));
+        for (int i = 0; i < ORDER_ITEMS; i++) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setBook(entityManager.getReference(Book.class, 1L));
+            orderItem.setQuantity(1);
+            orderItem.setPrice(BigDecimal.valueOf(799));
+            order.getOrderItems().add(orderItem);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,27 @@
+package mate.academy.intro.repository.book;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import mate.academy.intro.dto.BookSearchParametersDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookSearchPlanTest {
+    @Test
+    @DisplayName("Normalizes parameters so equivalent searches share one plan")
+    void of_normalizeParameters() {
+        BookSearchPlan first = BookSearchPlan.of(new BookSearchParametersDto(
+                new String[]{"Dune", " Emma ", "Dune"}, null, new String[]{"", null},
+                new BigDecimal("10.00"), null, new Long[]{3L, 1L, 3L}));
+        BookSearchPlan second = BookSearchPlan.of(new BookSearchParametersDto(
+                new String[]{"Emma", "Dune"}, new String[]{}, null,
+                BigDecimal.TEN, null, new Long[]{1L, 3L}));
+
+        assertEquals(new BookSearchPlan(List.of("Dune", "Emma"), List.of(), List.of(),
+                new BigDecimal("1E+1"), null, List.of(1L, 3L)), first);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+}
@@ -0,0 +1,84 @@
+package mate.academy.intro.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+class ConflictRetryInterceptorTest {
+    private static final String OPERATION = "FlakyCartWriter.write";
+    private final AtomicInteger calls = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private FlakyCartWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ProxyFactory proxyFactory = new ProxyFactory(new FlakyCartWriter());
+        proxyFactory.addAdvice(new ConflictRetryInterceptor(
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class),
+                3, Duration.ofMillis(1), Duration.ofMillis(5)));
+        writer = (FlakyCartWriter) proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Retries optimistic lock and deadlock failures until the call succeeds")
+    void invoke_transientConflicts_retriesAndCounts() {
+        String result = writer.write(new RuntimeException[]{
+                new ObjectOptimisticLockingFailureException("CartItem", 1L),
+                new CannotAcquireLockException("Deadlock",
+                        new SQLException("Deadlock found", "40001", 1213))});
+
+        assertEquals("written", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, meterRegistry.counter("book_store.retry.retries",
+                "operation", OPERATION).count());
+        assertEquals(2, meterRegistry.counter("book_store.retry.conflicts",
+                "operation", OPERATION).count());
+    }
+
+    @Test
+    @DisplayName("Gives up after the attempt cap and rethrows the conflict")
+    void invoke_persistentConflict_rethrowsAfterCap() {
+        ObjectOptimisticLockingFailureException conflict =
+                new ObjectOptimisticLockingFailureException("ShoppingCart", 1L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> writer.write(new RuntimeException[]{conflict, conflict, conflict}));
+        assertEquals(3, calls.get());
+        assertEquals(1, meterRegistry.counter("book_store.retry.exhausted",
+                "operation", OPERATION).count());
+    }
+
+    @Test
+    @DisplayName("Does not retry failures that are not conflicts")
+    void invoke_otherFailure_noRetry() {
+        assertThrows(DataIntegrityViolationException.class, () -> writer.write(
+                new RuntimeException[]{new DataIntegrityViolationException("duplicate")}));
+        assertEquals(1, calls.get());
+    }
+
+    class FlakyCartWriter {
+        public String write(RuntimeException[] failures) {
+            int call = calls.getAndIncrement();
+            if (call < failures.length) {
+                throw failures[call];
+            }
+            return "written";
+        }
+    }
+}
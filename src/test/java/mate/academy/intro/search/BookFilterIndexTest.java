@@ -0,0 +1,84 @@
+package mate.academy.intro.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import mate.academy.intro.dto.BookSearchParametersDto;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.BookSpecificationBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest(properties = "book.filter-index.enabled=true")
+@Sql(scripts = "classpath:database/books/add-books-for-filter-index.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-books.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class BookFilterIndexTest {
+    @Autowired
+    private BookFilterIndex bookFilterIndex;
+
+    @Autowired
+    private BookSpecificationBuilder bookSpecificationBuilder;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    @DisplayName("Matches the specification path for category and price filters")
+    void select_categoryAndPriceFilters_matchSpecificationPath() {
+        bookFilterIndex.load();
+        List<BookSearchParametersDto> searches = List.of(
+                search(null, null, null, 1L),
+                search(null, null, null, 2L, 3L),
+                search(null, new BigDecimal("20"), null),
+                search(null, null, new BigDecimal("20.00")),
+                search(null, new BigDecimal("10"), new BigDecimal("25.5")),
+                search(null, new BigDecimal("9.995"), new BigDecimal("19.99")),
+                search(null, new BigDecimal("30"), new BigDecimal("10")),
+                search(null, new BigDecimal("15"), null, 2L),
+                search(null, null, null, 4L),
+                search(null, null, null));
+
+        for (BookSearchParametersDto search : searches) {
+            Optional<BookIdBitmap> matches = bookFilterIndex.select(search);
+
+            assertTrue(matches.isPresent());
+            assertArrayEquals(specificationIds(search), matches.get().page(0, 100));
+        }
+        assertArrayEquals(new int[]{3, 4, 7}, bookFilterIndex.select(search(null,
+                new BigDecimal("20"), new BigDecimal("25.50"))).orElseThrow().page(0, 100));
+    }
+
+    @Test
+    @DisplayName("Leaves author filters to the case-insensitive specification path")
+    void select_authorFilter_fallsBackToSpecificationPath() {
+        bookFilterIndex.load();
+
+        assertTrue(bookFilterIndex.select(search(new String[]{"robert martin"},
+                null, null)).isEmpty());
+        assertTrue(bookFilterIndex.select(search(new String[]{"Joshua Bloch"},
+                new BigDecimal("10"), null, 2L)).isEmpty());
+    }
+
+    private int[] specificationIds(BookSearchParametersDto search) {
+        return bookRepository.findRows(bookSpecificationBuilder.build(search),
+                        PageRequest.of(0, 100, Sort.by("id"))).stream()
+                .mapToInt(book -> book.id().intValue())
+                .toArray();
+    }
+
+    private BookSearchParametersDto search(String[] authors, BigDecimal minPrice,
+                                           BigDecimal maxPrice, Long... categoryIds) {
+        return new BookSearchParametersDto(null, authors, null, minPrice, maxPrice,
+                categoryIds.length == 0 ? null : categoryIds);
+    }
+}
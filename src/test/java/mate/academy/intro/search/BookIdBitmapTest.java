@@ -0,0 +1,79 @@
+package mate.academy.intro.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookIdBitmapTest {
+
+    @Test
+    @DisplayName("Intersects, unites and subtracts sparse bitmaps")
+    void setOperations_sparseBitmaps_matchExpectedIds() {
+        BookIdBitmap fantasy = BookIdBitmap.of(1, 5, 70_000, 200_000);
+        BookIdBitmap classics = BookIdBitmap.of(5, 9, 200_000);
+
+        assertArrayEquals(new int[]{5, 200_000}, fantasy.and(classics).page(0, 10));
+        assertArrayEquals(new int[]{1, 5, 9, 70_000, 200_000},
+                fantasy.or(classics).page(0, 10));
+        assertArrayEquals(new int[]{1, 70_000}, fantasy.andNot(classics).page(0, 10));
+    }
+
+    @Test
+    @DisplayName("Keeps dense and sparse containers consistent with a BitSet")
+    void setOperations_denseBitmaps_matchBitSet() {
+        Random random = new Random(42);
+        BitSet left = new BitSet();
+        BitSet right = new BitSet();
+        BookIdBitmap leftBitmap = new BookIdBitmap();
+        BookIdBitmap rightBitmap = new BookIdBitmap();
+        for (int i = 0; i < 20_000; i++) {
+            int leftValue = random.nextInt(150_000);
+            int rightValue = random.nextInt(150_000);
+            left.set(leftValue);
+            right.set(rightValue);
+            leftBitmap.add(leftValue);
+            rightBitmap.add(rightValue);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            int value = random.nextInt(150_000);
+            left.clear(value);
+            leftBitmap.remove(value);
+        }
+
+        BitSet and = (BitSet) left.clone();
+        and.and(right);
+        BitSet or = (BitSet) left.clone();
+        or.or(right);
+        BitSet andNot = (BitSet) left.clone();
+        andNot.andNot(right);
+
+        assertEquals(left.cardinality(), leftBitmap.cardinality());
+        assertArrayEquals(and.stream().toArray(),
+                leftBitmap.and(rightBitmap).page(0, 150_000));
+        assertArrayEquals(or.stream().toArray(),
+                leftBitmap.or(rightBitmap).page(0, 150_000));
+        assertArrayEquals(andNot.stream().toArray(),
+                leftBitmap.andNot(rightBitmap).page(0, 150_000));
+    }
+
+    @Test
+    @DisplayName("Pages by offset and seeks after an id across containers")
+    void pageAndAfter_returnIdsInAscendingOrder() {
+        BookIdBitmap bitmap = new BookIdBitmap();
+        IntStream.range(65_530, 65_545).forEach(bitmap::add);
+
+        assertArrayEquals(new int[]{65_534, 65_535, 65_536}, bitmap.page(4, 3));
+        assertArrayEquals(new int[]{65_536, 65_537}, bitmap.after(65_535, 2));
+        assertArrayEquals(new int[]{65_544}, bitmap.after(65_543, 5));
+        assertEquals(0, bitmap.after(65_544, 5).length);
+        assertTrue(bitmap.contains(65_536));
+        assertFalse(bitmap.contains(65_545));
+    }
+}
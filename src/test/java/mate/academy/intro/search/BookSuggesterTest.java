@@ -0,0 +1,93 @@
+package mate.academy.intro.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import mate.academy.intro.dto.BookSalesDto;
+import mate.academy.intro.dto.BookSuggestionDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggesterTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @InjectMocks
+    private BookSuggester bookSuggester;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.findRowsAfter(anyLong(), anyInt())).thenReturn(List.of(
+                createBook(1L, "Dune", "Frank Herbert"),
+                createBook(2L, "Dune Messiah", "Frank Herbert"),
+                createBook(3L, "Dracula", "Bram Stoker")));
+        when(orderItemRepository.findBookSales()).thenReturn(List.of(
+                new BookSalesDto(2L, 40L),
+                new BookSalesDto(1L, 10L)));
+        bookSuggester.load();
+    }
+
+    @Test
+    @DisplayName("Ranks suggestions by sales weight")
+    void suggest_ranksBySales() {
+        assertEquals(List.of(title("Dune Messiah"), title("Dune")),
+                bookSuggester.suggest("dun", 5));
+
+        when(orderItemRepository.findBookSales()).thenReturn(List.of(
+                new BookSalesDto(1L, 90L),
+                new BookSalesDto(2L, 40L)));
+        bookSuggester.refreshSales();
+        bookSuggester.rebuildIfDirty();
+
+        assertEquals(List.of(title("Dune"), title("Dune Messiah")),
+                bookSuggester.suggest("dun", 5));
+    }
+
+    @Test
+    @DisplayName("Rebuilds from the repository on book events without reloading sales")
+    void onBookChanged_rebuildsFromCachedSales() {
+        when(bookRepository.findRowsAfter(anyLong(), anyInt())).thenReturn(List.of(
+                createBook(1L, "Dune", "Frank Herbert"),
+                createBook(3L, "Dracula", "Bram Stoker"),
+                createBook(4L, "Dune Chronicles", "Frank Herbert")));
+        bookSuggester.onBookChanged(BookChangedEvent.saved(4L,
+                createBook(4L, "Dune Chronicles", "Frank Herbert"), List.of()));
+        bookSuggester.onBookChanged(BookChangedEvent.deleted(2L));
+        assertEquals(List.of(title("Dune Messiah"), title("Dune")),
+                bookSuggester.suggest("dun", 5));
+
+        bookSuggester.rebuildIfDirty();
+        bookSuggester.rebuildIfDirty();
+
+        assertEquals(List.of(title("Dune"), title("Dune Chronicles")),
+                bookSuggester.suggest("dun", 5));
+        assertEquals(List.of(new BookSuggestionDto("Bram Stoker", SuggestionType.AUTHOR)),
+                bookSuggester.suggest("bram", 5));
+        verify(orderItemRepository, times(1)).findBookSales();
+        verify(bookRepository, times(2)).findRowsAfter(anyLong(), anyInt());
+    }
+
+    private BookSuggestionDto title(String text) {
+        return new BookSuggestionDto(text, SuggestionType.TITLE);
+    }
+
+    private BookDtoWithoutCategoryIds createBook(Long id, String title, String author) {
+        return new BookDtoWithoutCategoryIds(id, title, author, null, null, null, null);
+    }
+}
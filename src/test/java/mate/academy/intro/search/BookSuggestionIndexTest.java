@@ -0,0 +1,54 @@
+package mate.academy.intro.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import mate.academy.intro.dto.BookSuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookSuggestionIndexTest {
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = BookSuggestionIndex.builder()
+                .add("Harry Potter and the Philosopher's Stone", SuggestionType.TITLE, 50)
+                .add("Harry Potter and the Chamber of Secrets", SuggestionType.TITLE, 80)
+                .add("Harper Lee", SuggestionType.AUTHOR, 30)
+                .add("Harper Lee", SuggestionType.AUTHOR, 40)
+                .add("Hard Times", SuggestionType.TITLE, 5)
+                .add("The Hobbit", SuggestionType.TITLE, 100)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Returns entries with the prefix ordered by popularity")
+    void suggest_returnMostPopularMatchesFirst() {
+        List<BookSuggestionDto> expected = List.of(
+                new BookSuggestionDto("Harry Potter and the Chamber of Secrets",
+                        SuggestionType.TITLE),
+                new BookSuggestionDto("Harper Lee", SuggestionType.AUTHOR),
+                new BookSuggestionDto("Harry Potter and the Philosopher's Stone",
+                        SuggestionType.TITLE));
+        assertEquals(expected, index.suggest("HAR", 3));
+    }
+
+    @Test
+    @DisplayName("Merges duplicate entries and ignores case")
+    void suggest_mergeDuplicates() {
+        assertEquals(List.of(new BookSuggestionDto("Harper Lee", SuggestionType.AUTHOR)),
+                index.suggest("harper", 10));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    @DisplayName("Returns nothing when no entry has the prefix")
+    void suggest_returnEmptyList_whenNoMatch() {
+        assertTrue(index.suggest("zz", 10).isEmpty());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+        assertTrue(BookSuggestionIndex.empty().suggest("har", 10).isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package mate.academy.intro.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookTextIndexTest {
+    private BookTextIndex bookTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookTextIndex = new BookTextIndex();
+        bookTextIndex.index(createBook(1L, "The Lord of the Rings", "J.R.R. Tolkien",
+                "An epic quest to destroy the One Ring"));
+        bookTextIndex.index(createBook(2L, "The Hobbit", "J.R.R. Tolkien",
+                "A hobbit leaves the Shire"));
+        bookTextIndex.index(createBook(3L, "Ringworld", "Larry Niven",
+                "A ring-shaped world orbiting a star"));
+    }
+
+    @Test
+    @DisplayName("Ranks books matching every query term first")
+    void search_rankBooksMatchingAllTermsFirst() {
+        List<Long> result = bookTextIndex.search("tolkien ring", 10);
+        assertEquals(List.of(1L, 3L, 2L), result);
+    }
+
+    @Test
+    @DisplayName("Matches terms regardless of case and accents")
+    void search_ignoreCaseAndAccents() {
+        bookTextIndex.index(createBook(4L, "Les Misérables", "Victor Hugo", null));
+        assertEquals(List.of(4L), bookTextIndex.search("MISERABLES", 10));
+    }
+
+    @Test
+    @DisplayName("Reflects updates and removals")
+    void search_reflectUpdatesAndRemovals() {
+        bookTextIndex.index(createBook(2L, "The Silmarillion", "J.R.R. Tolkien", null));
+        bookTextIndex.remove(1L);
+
+        assertTrue(bookTextIndex.search("hobbit", 10).isEmpty());
+        assertEquals(List.of(2L), bookTextIndex.search("tolkien", 10));
+        assertEquals(2, bookTextIndex.size());
+    }
+
+    @Test
+    @DisplayName("Returns at most the requested number of results")
+    void search_limitResults() {
+        assertEquals(1, bookTextIndex.search("the", 1).size());
+        assertTrue(bookTextIndex.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Keeps posting lists proportional to live books across edits")
+    void index_repeatedEdits_compactsPostings() {
+        for (int i = 0; i < 100; i++) {
+            bookTextIndex.index(createBook(1L, "The Lord of the Rings", "J.R.R. Tolkien",
+                    "An epic quest to destroy the One Ring"));
+        }
+
+        assertTrue(bookTextIndex.postingCount("tolkien") <= 4);
+        assertTrue(bookTextIndex.postingCount("epic") <= 2);
+        assertEquals(List.of(1L, 3L, 2L), bookTextIndex.search("tolkien ring", 10));
+    }
+
+    @Test
+    @DisplayName("Renumbers documents once tombstones outnumber live books")
+    void index_manyEdits_ranksLikeFreshIndex() {
+        for (int i = 0; i < 3000; i++) {
+            bookTextIndex.index(createBook(3L, "Ringworld " + i % 7, "Larry Niven",
+                    "A ring-shaped world orbiting a star"));
+        }
+        bookTextIndex.remove(2L);
+        BookTextIndex freshIndex = new BookTextIndex();
+        freshIndex.index(createBook(1L, "The Lord of the Rings", "J.R.R. Tolkien",
+                "An epic quest to destroy the One Ring"));
+        freshIndex.index(createBook(3L, "Ringworld " + 2999 % 7, "Larry Niven",
+                "A ring-shaped world orbiting a star"));
+
+        assertTrue(bookTextIndex.docSlots() <= 1024 + 2);
+        assertEquals(0, bookTextIndex.postingCount("hobbit"));
+        for (String query : List.of("tolkien ring", "ring", "world star", "the 6")) {
+            assertEquals(freshIndex.search(query, 10), bookTextIndex.search(query, 10));
+        }
+        assertEquals(2, bookTextIndex.size());
+    }
+
+    private BookDtoWithoutCategoryIds createBook(Long id, String title, String author,
+                                                 String description) {
+        return new BookDtoWithoutCategoryIds(id, title, author, description, null, null, null);
+    }
+}
@@ -0,0 +1,116 @@
+package mate.academy.intro.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import mate.academy.intro.dto.BookBatchOperationDto;
+import mate.academy.intro.dto.BookBatchOperationType;
+import mate.academy.intro.dto.BookBatchResultDto;
+import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.event.BookChangedEvent;
+import mate.academy.intro.mapper.BookMapper;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.BookRepository;
+import mate.academy.intro.repository.CategoryRepository;
+import mate.academy.intro.util.TestUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class BookBatchServiceImplTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private BookCacheEvictor bookCacheEvictor;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @InjectMocks
+    private BookBatchServiceImpl bookBatchService;
+
+    @Test
+    @DisplayName("Applies valid operations and reports failed ones per item")
+    void apply_returnResultPerOperation() {
+        Category category = TestUtil.createCategory();
+        category.setId(1L);
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+        Book book = TestUtil.createBook();
+        BookDto bookDto = TestUtil.createBookDto(null);
+        List<BookBatchOperationDto> operations = List.of(
+                new BookBatchOperationDto(BookBatchOperationType.CREATE, null, null, requestDto),
+                new BookBatchOperationDto(BookBatchOperationType.UPDATE, 7L, null, requestDto),
+                new BookBatchOperationDto(BookBatchOperationType.DELETE, 3L, null, null),
+                new BookBatchOperationDto(BookBatchOperationType.DELETE, 4L, null, null));
+
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(category));
+        when(bookRepository.findAllWithCategoriesByIdIn(Set.of(7L))).thenReturn(List.of());
+        when(bookRepository.findExistingIds(Set.of(3L, 4L))).thenReturn(List.of(3L));
+        when(bookMapper.toModel(requestDto)).thenReturn(book);
+        when(bookMapper.bookToBookDto(book)).thenReturn(bookDto);
+
+        List<BookBatchResultDto> results = bookBatchService.apply(operations);
+
+        assertEquals(List.of(201, 404, 204, 404),
+                results.stream().map(BookBatchResultDto::status).toList());
+        assertEquals(bookDto, results.get(0).book());
+        assertEquals(Set.of(category), book.getCategories());
+        verify(bookRepository).softDeleteByIdIn(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Rejects operations referencing unknown categories without writing them")
+    void apply_returnBadRequest_whenCategoryUnknown() {
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+        List<BookBatchOperationDto> operations = List.of(
+                new BookBatchOperationDto(BookBatchOperationType.CREATE, null, null, requestDto));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+
+        List<BookBatchResultDto> results = bookBatchService.apply(operations);
+
+        assertEquals(400, results.get(0).status());
+        verify(bookMapper, never()).toModel(any());
+        verify(bookRepository, never()).softDeleteByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Rejects a second operation on a book already changed in the batch")
+    void apply_returnConflict_whenBookRepeatedInBatch() {
+        Category category = TestUtil.createCategory();
+        category.setId(1L);
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+        Book book = TestUtil.createBook();
+        book.setId(3L);
+        List<BookBatchOperationDto> operations = List.of(
+                new BookBatchOperationDto(BookBatchOperationType.DELETE, 3L, null, null),
+                new BookBatchOperationDto(BookBatchOperationType.UPDATE, 3L, null, requestDto));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(category));
+        when(bookRepository.findAllWithCategoriesByIdIn(Set.of(3L))).thenReturn(List.of(book));
+        when(bookRepository.findExistingIds(Set.of(3L))).thenReturn(List.of(3L));
+
+        List<BookBatchResultDto> results = bookBatchService.apply(operations);
+
+        assertEquals(List.of(204, 409),
+                results.stream().map(BookBatchResultDto::status).toList());
+        verify(bookRepository).softDeleteByIdIn(List.of(3L));
+        verify(bookMapper, never()).updateBook(any(), any());
+        verify(eventPublisher).publishEvent(BookChangedEvent.deleted(3L));
+        verify(eventPublisher, never()).publishEvent(argThat((Object event) -> event
+                instanceof BookChangedEvent changed && !changed.isDeleted()));
+    }
+}
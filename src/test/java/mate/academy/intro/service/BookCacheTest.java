@@ -0,0 +1,126 @@
+package mate.academy.intro.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mate.academy.intro.config.CacheConfig;
+import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(properties = {
+        "spring.cache.type=caffeine",
+        "management.endpoints.web.exposure.include=health,metrics,caches"})
+@Sql(scripts = "classpath:database/books/delete-books.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/add-books.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-books.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class BookCacheTest {
+    private static MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void beforeEach(@Autowired WebApplicationContext applicationContext) {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(applicationContext)
+                .apply(springSecurity())
+                .build();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Serves a repeated book read from the cache")
+    @WithMockUser(roles = "USER")
+    void getBookById_secondRead_servedFromCache() throws Exception {
+        readBook();
+        jdbcTemplate.update("UPDATE books SET title = 'Changed behind the cache' WHERE id = 1");
+
+        assertEquals("Effective Java", readBook().getTitle());
+    }
+
+    @Test
+    @DisplayName("Evicts an updated book only after its transaction commits")
+    @WithMockUser(roles = "USER")
+    void updateBook_evictsCachedBook_afterCommit() throws Exception {
+        readBook();
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+        requestDto.setTitle("Effective Java, 3rd Edition");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.updateBook(1L, requestDto, null);
+            assertNotNull(books.get(1L));
+        });
+
+        assertNull(books.get(1L));
+        assertEquals("Effective Java, 3rd Edition", readBook().getTitle());
+    }
+
+    @Test
+    @DisplayName("Does not let a regular user read metrics or drop caches")
+    @WithMockUser(roles = "USER")
+    void actuator_asUser_returnForbidden() throws Exception {
+        readBook();
+
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/caches"))
+                .andExpect(status().isForbidden());
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+    }
+
+    @Test
+    @DisplayName("Lets an admin drop the caches through actuator")
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void actuator_asAdmin_clearsCaches() throws Exception {
+        readBook();
+
+        mockMvc.perform(delete("/actuator/caches"))
+                .andExpect(status().isNoContent());
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+    }
+
+    private BookDto readBook() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), BookDto.class);
+    }
+}
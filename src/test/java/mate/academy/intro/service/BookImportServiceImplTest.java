@@ -0,0 +1,73 @@
+package mate.academy.intro.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import mate.academy.intro.exception.ImportQueueFullException;
+import mate.academy.intro.repository.CategoryRepository;
+import mate.academy.intro.service.importer.BookImportJobRegistry;
+import mate.academy.intro.service.importer.BookImportWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceImplTest {
+    @Mock
+    private BookImportWriter bookImportWriter;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private Validator validator;
+    @Mock
+    private TaskExecutor bookImportExecutor;
+    @Mock
+    private MultipartFile file;
+
+    @Test
+    @DisplayName("Removes the job and the upload when the import queue is full")
+    void startImport_queueFull_cleansUpAndAsksToRetry() throws Exception {
+        BookImportJobRegistry registry = spy(new BookImportJobRegistry());
+        BookImportServiceImpl bookImportService = new BookImportServiceImpl(registry,
+                bookImportWriter, categoryRepository, validator, new ObjectMapper(),
+                bookImportExecutor);
+        AtomicReference<Path> upload = new AtomicReference<>();
+        when(file.getOriginalFilename()).thenReturn("books.csv");
+        doAnswer(invocation -> {
+            upload.set(invocation.getArgument(0));
+            return null;
+        }).when(file).transferTo(any(Path.class));
+        doThrow(new TaskRejectedException("queue is full"))
+                .when(bookImportExecutor).execute(any(Runnable.class));
+
+        ImportQueueFullException exception = assertThrows(ImportQueueFullException.class,
+                () -> bookImportService.startImport(file));
+
+        assertEquals(30, exception.getRetryAfter().toSeconds());
+        assertNotNull(upload.get());
+        assertFalse(Files.exists(upload.get()));
+        ArgumentCaptor<String> jobId = ArgumentCaptor.forClass(String.class);
+        verify(registry).remove(jobId.capture());
+        assertTrue(registry.find(jobId.getValue()).isEmpty());
+    }
+}
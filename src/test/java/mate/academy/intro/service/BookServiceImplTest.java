@@ -4,25 +4,36 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import mate.academy.intro.dto.BookCategoryIdDto;
 import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.BookDtoWithoutCategoryIds;
 import mate.academy.intro.dto.BookSearchParametersDto;
 import mate.academy.intro.dto.CreateBookRequestDto;
+import mate.academy.intro.event.BookChangedEvent;
 import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.exception.PreconditionFailedException;
 import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.Category;
 import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.BookSpecificationBuilder;
 import mate.academy.intro.repository.CategoryRepository;
+import mate.academy.intro.search.BookFilterIndex;
+import mate.academy.intro.search.BookIdBitmap;
+import mate.academy.intro.search.BookSuggester;
+import mate.academy.intro.search.BookTextIndex;
 import mate.academy.intro.util.TestUtil;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -30,6 +41,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +57,18 @@ class BookServiceImplTest {
     private BookSpecificationBuilder bookSpecificationBuilder;
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private BookCacheEvictor bookCacheEvictor;
+    @Mock
+    private BookTextIndex bookTextIndex;
+    @Mock
+    private BookFilterIndex bookFilterIndex;
+    @Mock
+    private BookSuggester bookSuggester;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EntityManager entityManager;
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -76,6 +103,7 @@ class BookServiceImplTest {
         assertEquals(expectedDto, result);
         verify(bookMapper).toModel(requestDto);
         verify(categoryRepository).findById(1L);
+        verify(eventPublisher).publishEvent(any(BookChangedEvent.class));
         verify(bookRepository).save(book);
         verify(bookMapper).bookToBookDto(savedBook);
     }
@@ -135,14 +163,27 @@ class BookServiceImplTest {
         verify(bookRepository).findById(id);
     }
 
+    @Test
+    @DisplayName("Reads only the version when checking a book's ETag")
+    void getVersion_returnVersion_withoutLoadingBook() {
+        Long id = 1L;
+        when(bookRepository.findVersionById(id)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, bookService.getVersion(id));
+        verify(bookRepository, never()).findById(id);
+        verifyNoInteractions(bookMapper);
+    }
+
     @Test
     @DisplayName("Deletes the book by the specified ID")
     void deleteById_deleteBook_whenBookExist() {
         Long id = 1L;
         when(bookRepository.existsById(id)).thenReturn(true);
+        when(bookRepository.findCategoryIdsById(id)).thenReturn(List.of(2L));
         bookService.deleteById(id);
         verify(bookRepository).existsById(id);
         verify(bookRepository).deleteById(id);
+        verify(bookCacheEvictor).evict(id, List.of(2L));
     }
 
     @Test
@@ -197,13 +238,14 @@ class BookServiceImplTest {
         when(bookRepository.findByIdWithCategory(id)).thenReturn(Optional.of(updatedBook));
         when(bookMapper.bookToBookDto(updatedBook)).thenReturn(updatedBookDto);
 
-        BookDto result = bookService.updateBook(id, requestDto);
+        BookDto result = bookService.updateBook(id, requestDto, null);
         assertEquals(updatedBookDto, result);
         verify(bookRepository).findById(id);
         verify(bookMapper).updateBook(book, requestDto);
         verify(bookRepository).save(updatedBook);
         verify(bookMapper).bookToBookDto(updatedBook);
         verify(categoryRepository).findById(1L);
+        verify(bookCacheEvictor).evict(eq(id), any());
     }
 
     @Test
@@ -213,43 +255,154 @@ class BookServiceImplTest {
         CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
         when(bookRepository.findById(id)).thenReturn(Optional.empty());
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
-                () -> bookService.updateBook(id, requestDto));
+                () -> bookService.updateBook(id, requestDto, null));
         assertTrue(exception.getMessage().contains("Cant find book by id " + id));
         verify(bookRepository).findById(id);
     }
 
     @Test
-    @DisplayName("Should return list of BookDto when searching with empty parameters")
+    @DisplayName("Rejects an update when the expected version is stale")
+    void updateBook_throwPreconditionFailedException_whenVersionMismatch() {
+        Long id = 1L;
+        Book book = createBook(id);
+        book.setVersion(4L);
+        CreateBookRequestDto requestDto = TestUtil.createBookRequestDto();
+        when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookService.updateBook(id, requestDto, 3L));
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Searches with empty parameters return at most one bounded page")
     void search_returnListOfBookDto() {
-        BookSearchParametersDto parametersDto = new BookSearchParametersDto(null, null, null);
+        BookSearchParametersDto parametersDto = new BookSearchParametersDto(null, null, null,
+                null, null, null);
         Specification<Book> specification = mock(Specification.class);
-        List<Book> books = List.of(new Book(), new Book(), new Book());
-        List<BookDto> bookDtos = List.of(new BookDto(), new BookDto(), new BookDto());
+        List<BookDtoWithoutCategoryIds> rows = List.of(createRow(1L), createRow(2L));
+        List<Long> ids = List.of(1L, 2L);
+        BookDto firstDto = TestUtil.createBookDto(1L);
+        BookDto secondDto = TestUtil.createBookDto(2L);
 
         when(bookSpecificationBuilder.build(parametersDto)).thenReturn(specification);
-        when(bookRepository.findAll(specification)).thenReturn(books);
-        when(bookMapper.bookToBookDto(any(Book.class)))
-                .thenReturn(bookDtos.get(0), bookDtos.get(1), bookDtos.get(2));
-
-        List<BookDto> result = bookService.search(parametersDto);
-        assertEquals(bookDtos, result);
+        Pageable bounded = PageRequest.of(0, 100, Sort.by("id"));
+        when(bookRepository.findRows(specification, bounded)).thenReturn(rows);
+        when(bookRepository.findCategoryIdsByBookIdIn(ids))
+                .thenReturn(List.of(new BookCategoryIdDto(1L, 5L)));
+        when(bookMapper.toBookDto(rows.get(0), List.of(5L))).thenReturn(firstDto);
+        when(bookMapper.toBookDto(rows.get(1), List.of())).thenReturn(secondDto);
+
+        List<BookDto> result = bookService.search(parametersDto, Pageable.unpaged());
+        assertEquals(List.of(firstDto, secondDto), result);
         verify(bookSpecificationBuilder).build(parametersDto);
-        verify(bookRepository).findAll(specification);
+        verify(bookRepository).findRows(specification, bounded);
+        verify(bookRepository).findCategoryIdsByBookIdIn(ids);
+    }
+
+    @Test
+    @DisplayName("Loads a page of book rows with their category ids in one extra query")
+    void findAll_returnBooksInPageOrder() {
+        Pageable pageable = PageRequest.of(0, 2);
+        BookDtoWithoutCategoryIds first = createRow(7L);
+        BookDtoWithoutCategoryIds second = createRow(3L);
+        BookDto firstDto = TestUtil.createBookDto(7L);
+        BookDto secondDto = TestUtil.createBookDto(3L);
+
+        when(bookRepository.findRows(pageable)).thenReturn(List.of(first, second));
+        when(bookRepository.findCategoryIdsByBookIdIn(List.of(7L, 3L))).thenReturn(List.of(
+                new BookCategoryIdDto(3L, 1L),
+                new BookCategoryIdDto(7L, 1L),
+                new BookCategoryIdDto(7L, 2L)));
+        when(bookMapper.toBookDto(first, List.of(1L, 2L))).thenReturn(firstDto);
+        when(bookMapper.toBookDto(second, List.of(1L))).thenReturn(secondDto);
+
+        List<BookDto> result = bookService.findAll(pageable);
+        assertEquals(List.of(firstDto, secondDto), result);
     }
 
     @Test
     @DisplayName("Return list of books for a given category")
     void findBooksByCategoryId_returnListOfBookDto() {
         Long categoryId = 1L;
-        List<Book> books = List.of(new Book(), new Book(), new Book());
-        List<BookDto> bookDtos = List.of(new BookDto(), new BookDto(), new BookDto());
+        List<BookDtoWithoutCategoryIds> rows = List.of(createRow(1L), createRow(2L));
+        List<BookDto> bookDtos = List.of(new BookDto(), new BookDto());
+
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+        when(bookRepository.findRowsByCategoryId(categoryId, pageable)).thenReturn(rows);
+        when(bookRepository.findCategoryIdsByBookIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new BookCategoryIdDto(1L, categoryId),
+                new BookCategoryIdDto(2L, categoryId)));
+        when(bookMapper.toBookDto(any(BookDtoWithoutCategoryIds.class), eq(List.of(categoryId))))
+                .thenReturn(bookDtos.get(0), bookDtos.get(1));
+
+        List<BookDto> result = bookService.findBooksByCategoryId(categoryId, pageable);
+        assertEquals(bookDtos.size(), result.size());
+        verify(bookRepository).findRowsByCategoryId(categoryId, pageable);
+    }
 
-        when(bookRepository.findAllByCategoriesId(categoryId)).thenReturn(books);
-        when(bookMapper.bookToBookDto(any(Book.class)))
-                .thenReturn(bookDtos.get(0), bookDtos.get(1), bookDtos.get(2));
+    @Test
+    @DisplayName("Returns full-text matches in index rank order")
+    void searchByText_returnBooksInRankOrder() {
+        BookDtoWithoutCategoryIds first = createRow(4L);
+        BookDtoWithoutCategoryIds second = createRow(2L);
+        BookDto firstDto = TestUtil.createBookDto(4L);
+        BookDto secondDto = TestUtil.createBookDto(2L);
+
+        when(bookTextIndex.search("tolkien ring", 20)).thenReturn(List.of(4L, 2L));
+        when(bookRepository.findRowsByIdIn(List.of(4L, 2L))).thenReturn(List.of(second, first));
+        when(bookRepository.findCategoryIdsByBookIdIn(List.of(4L, 2L))).thenReturn(List.of());
+        when(bookMapper.toBookDto(first, List.of())).thenReturn(firstDto);
+        when(bookMapper.toBookDto(second, List.of())).thenReturn(secondDto);
+
+        List<BookDto> result = bookService.search("tolkien ring", 20);
+        assertEquals(List.of(firstDto, secondDto), result);
+    }
 
-        List<BookDto> result = bookService.findBooksByCategoryId(categoryId);
-        assertEquals(bookDtos.size(), result.size());
-        verify(bookRepository).findAllByCategoriesId(categoryId);
+    @Test
+    @DisplayName("Answers filter-only searches from the bitmap index without a specification")
+    void search_filterIndexReady_hydratesPageByIds() {
+        BookSearchParametersDto parametersDto = new BookSearchParametersDto(null,
+                new String[]{"Author"}, null, null, null, new Long[]{1L});
+        BookDtoWithoutCategoryIds first = createRow(3L);
+        BookDtoWithoutCategoryIds second = createRow(7L);
+        BookDto firstDto = TestUtil.createBookDto(3L);
+        BookDto secondDto = TestUtil.createBookDto(7L);
+
+        when(bookFilterIndex.select(parametersDto))
+                .thenReturn(Optional.of(BookIdBitmap.of(1, 2, 3, 7)));
+        when(bookRepository.findRowsByIdIn(List.of(3L, 7L))).thenReturn(List.of(second, first));
+        when(bookRepository.findCategoryIdsByBookIdIn(List.of(3L, 7L))).thenReturn(List.of());
+        when(bookMapper.toBookDto(first, List.of())).thenReturn(firstDto);
+        when(bookMapper.toBookDto(second, List.of())).thenReturn(secondDto);
+
+        List<BookDto> result = bookService.search(parametersDto, PageRequest.of(1, 2));
+        assertEquals(List.of(firstDto, secondDto), result);
+        verifyNoInteractions(bookSpecificationBuilder);
+    }
+
+    @Test
+    @DisplayName("Returns an empty page when the offset is past the bitmap matches")
+    void search_filterIndexOffsetPastMatches_returnsEmptyPage() {
+        BookSearchParametersDto parametersDto = new BookSearchParametersDto(null,
+                null, null, null, null, new Long[]{1L});
+        when(bookFilterIndex.select(parametersDto))
+                .thenReturn(Optional.of(BookIdBitmap.of(1, 2, 3, 7)));
+
+        assertTrue(bookService.search(parametersDto, PageRequest.of(2, 2)).isEmpty());
+        assertTrue(bookService.search(parametersDto, PageRequest.of(30_000_000, 100))
+                .isEmpty());
+        verifyNoInteractions(bookRepository, bookSpecificationBuilder);
+    }
+
+    private Book createBook(Long id) {
+        Book book = TestUtil.createBook();
+        book.setId(id);
+        return book;
+    }
+
+    private BookDtoWithoutCategoryIds createRow(Long id) {
+        return new BookDtoWithoutCategoryIds(id, "Title " + id, "Author", "Description",
+                BigDecimal.valueOf(10), "isbn-" + id, null);
     }
 }
@@ -3,20 +3,14 @@ package mate.academy.intro.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
-import java.util.List;
 import java.util.Optional;
-import mate.academy.intro.dto.BookDto;
 import mate.academy.intro.dto.CategoryDto;
 import mate.academy.intro.dto.CreateCategoryRequestDto;
 import mate.academy.intro.exception.EntityNotFoundException;
-import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.mapper.CategoryMapper;
-import mate.academy.intro.model.Book;
 import mate.academy.intro.model.Category;
-import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.CategoryRepository;
 import mate.academy.intro.util.TestUtil;
 import org.junit.jupiter.api.DisplayName;
@@ -31,13 +25,7 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
-    private BookRepository bookRepository;
-    @Mock
     private CategoryMapper categoryMapper;
-    @Mock
-    private BookMapper bookMapper;
-    @InjectMocks
-    private BookServiceImpl bookService;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -130,26 +118,4 @@ class CategoryServiceImplTest {
                 () -> categoryService.deleteById(id));
         assertTrue(exception.getMessage().contains("Can not find category with id: " + id));
     }
-
-    @Test
-    @DisplayName("Should return list of BookDto when books exist for given category ID")
-    void getBookCategoryById_returnMappedBooks_whenBooksExist() {
-        Long categoryId = 1L;
-        List<Book> books = List.of(new Book(), new Book());
-        List<BookDto> bookDtos = List.of(new BookDto(), new BookDto());
-        when(bookRepository.findAllByCategoriesId(categoryId)).thenReturn(books);
-        when(bookMapper.bookToBookDto(any(Book.class)))
-                .thenReturn(bookDtos.get(0), bookDtos.get(1));
-        List<BookDto> result = bookService.findBooksByCategoryId(categoryId);
-        assertEquals(bookDtos, result);
-    }
-
-    @Test
-    @DisplayName("Should return empty list when no books found for given category ID")
-    void getBookCategoryById_returnEmptyList_whenBooksNotFound() {
-        Long categoryId = 999L;
-        when(bookRepository.findAllByCategoriesId(categoryId)).thenReturn(List.of());
-        List<BookDto> result = bookService.findBooksByCategoryId(categoryId);
-        assertTrue(result.isEmpty());
-    }
 }
@@ -0,0 +1,86 @@
+package mate.academy.intro.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import mate.academy.intro.dto.OrderRequestDto;
+import mate.academy.intro.dto.OrderResponseDto;
+import mate.academy.intro.repository.CartItemRepository;
+import mate.academy.intro.repository.ShoppingCartRepository;
+import mate.academy.intro.service.idempotency.IdempotentOrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(scripts = {"classpath:database/shoppingCarts/add-shoppingCarts.sql",
+        "classpath:database/orders/add-cart-items-for-order.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-books.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class OrderServiceImplPlaceOrderTest {
+    private static final int CART_ITEMS = 40;
+    private static final int MAX_STATEMENTS = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotentOrderService idempotentOrderService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Places a 40-item order in a constant number of statements")
+    void placeOrder_fortyItems_batchesInsertsAndClearsCartOnce() {
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setShippingAddress("Kyiv");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderResponseDto order = orderService.placeOrder(requestDto, 1L);
+
+        final long preparedStatements = statistics.getPrepareStatementCount();
+        assertEquals(CART_ITEMS, order.getOrderItems().size());
+        assertEquals(0, BigDecimal.valueOf(799 * 2 + 10 * 2 * (CART_ITEMS - 1))
+                .compareTo(order.getTotal()));
+        assertEquals(CART_ITEMS + 1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertTrue(preparedStatements <= MAX_STATEMENTS,
+                "Expected at most " + MAX_STATEMENTS + " statements, got " + preparedStatements);
+        assertEquals(0, cartItemRepository.countByShoppingCartId(1L));
+        assertEquals(1L, shoppingCartRepository.findVersionById(1L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Returns the stored order for a repeated idempotency key without writes")
+    void placeOrder_repeatedIdempotencyKey_returnsOriginalOrder() {
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setShippingAddress("Kyiv");
+        OrderResponseDto first = idempotentOrderService.placeOrder(requestDto, 1L, "retry-1");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderResponseDto second = idempotentOrderService.placeOrder(requestDto, 1L, "retry-1");
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(CART_ITEMS, second.getOrderItems().size());
+        assertEquals(0, first.getTotal().compareTo(second.getTotal()));
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1L, shoppingCartRepository.findVersionById(1L).orElseThrow());
+    }
+}
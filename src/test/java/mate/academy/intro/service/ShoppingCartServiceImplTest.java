@@ -4,20 +4,29 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import mate.academy.intro.dto.CartDeltaDto;
+import mate.academy.intro.dto.CartItemDto;
 import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.CartOperationDto;
+import mate.academy.intro.dto.CartOperationType;
 import mate.academy.intro.dto.ShoppingCartDto;
 import mate.academy.intro.dto.UpdateCartItemDto;
 import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.mapper.CartItemMapper;
 import mate.academy.intro.mapper.ShoppingCartMapper;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.CartItem;
 import mate.academy.intro.model.ShoppingCart;
 import mate.academy.intro.repository.BookRepository;
 import mate.academy.intro.repository.CartItemRepository;
+import mate.academy.intro.repository.EntityIdAllocator;
 import mate.academy.intro.repository.ShoppingCartRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -33,9 +42,13 @@ class ShoppingCartServiceImplTest {
     @Mock
     private CartItemRepository cartItemRepository;
     @Mock
-    private BookRepository bookRepository;
+    private EntityIdAllocator entityIdAllocator;
     @Mock
     private ShoppingCartMapper shoppingCartMapper;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CartItemMapper cartItemMapper;
     @InjectMocks
     private ShoppingCartServiceImpl shoppingCartService;
 
@@ -79,38 +92,52 @@ class ShoppingCartServiceImplTest {
         requestDto.setQuantity(3);
         ShoppingCart shoppingCart = new ShoppingCart();
         shoppingCart.setId(7L);
-        Book book = new Book();
-        book.setId(bookId);
-        book.setTitle("Effective Java");
         ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
         shoppingCartDto.setId(shoppingCart.getId());
         Long userId = 1L;
 
+        when(entityIdAllocator.allocate(CartItem.class, 1)).thenReturn(List.of(51L));
+        when(cartItemRepository.upsert(51L, userId, bookId, 3)).thenReturn(1);
         when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(shoppingCart));
-        when(bookRepository.findByIdWithCategory(bookId)).thenReturn(Optional.of(book));
         when(shoppingCartMapper.toShoppingCartDto(shoppingCart)).thenReturn(shoppingCartDto);
 
         ShoppingCartDto result = shoppingCartService.addItemToCart(userId, requestDto);
 
         assertEquals(shoppingCartDto, result);
-        verify(shoppingCartRepository).findByUserId(userId);
-        verify(bookRepository).findByIdWithCategory(bookId);
-        verify(cartItemRepository).save(any(CartItem.class));
+        verify(cartItemRepository).upsert(51L, userId, bookId, 3);
+        verify(cartItemRepository, never()).save(any(CartItem.class));
         verify(shoppingCartMapper).toShoppingCartDto(shoppingCart);
     }
 
     @Test
     @DisplayName("Returns an error when the cart is not found")
     void addItemToCart_throwEntityNotFoundException_whenCartNotFound() {
-        Long userId = 1L;
+        final Long userId = 1L;
         CartItemRequestDto requestDto = new CartItemRequestDto();
         requestDto.setBookId(33L);
         requestDto.setQuantity(3);
-        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(entityIdAllocator.allocate(CartItem.class, 1)).thenReturn(List.of(51L));
+        when(cartItemRepository.upsert(51L, userId, 33L, 3)).thenReturn(0);
+        when(shoppingCartRepository.existsByUserId(userId)).thenReturn(false);
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
                 () -> shoppingCartService.addItemToCart(userId, requestDto));
         assertTrue(exception.getMessage().contains("Shopping cart not found for user:" + userId));
-        verify(shoppingCartRepository).findByUserId(userId);
+        verify(shoppingCartRepository).existsByUserId(userId);
+    }
+
+    @Test
+    @DisplayName("Returns an error when the book is missing or deleted")
+    void addItemToCart_throwEntityNotFoundException_whenBookNotFound() {
+        final Long userId = 1L;
+        CartItemRequestDto requestDto = new CartItemRequestDto();
+        requestDto.setBookId(33L);
+        requestDto.setQuantity(3);
+        when(entityIdAllocator.allocate(CartItem.class, 1)).thenReturn(List.of(51L));
+        when(cartItemRepository.upsert(51L, userId, 33L, 3)).thenReturn(0);
+        when(shoppingCartRepository.existsByUserId(userId)).thenReturn(true);
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.addItemToCart(userId, requestDto));
+        assertEquals("Book not found", exception.getMessage());
     }
 
     @Test
@@ -196,4 +223,64 @@ class ShoppingCartServiceImplTest {
         assertTrue(exception.getMessage().contains("Shopping cart not found for user:" + userId));
         verify(shoppingCartRepository).findByUserId(userId);
     }
+
+    @Test
+    @DisplayName("Applies all operations to one loaded cart and saves it once")
+    void applyOperations_removeThenAdd_reusesCartItem() {
+        Long userId = 1L;
+        Book book = new Book();
+        book.setId(5L);
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setId(userId);
+        CartItem cartItem = new CartItem();
+        cartItem.setId(11L);
+        cartItem.setBook(book);
+        cartItem.setQuantity(2);
+        cartItem.setShoppingCart(shoppingCart);
+        shoppingCart.getCartItems().add(cartItem);
+        ShoppingCartDto expected = new ShoppingCartDto();
+        List<CartOperationDto> operations = List.of(
+                new CartOperationDto(CartOperationType.REMOVE, null, 11L, null),
+                new CartOperationDto(CartOperationType.ADD, 5L, null, 4));
+
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(shoppingCart));
+        when(bookRepository.findAllById(Set.of(5L))).thenReturn(List.of(book));
+        when(shoppingCartMapper.toShoppingCartDto(shoppingCart)).thenReturn(expected);
+
+        ShoppingCartDto result = shoppingCartService.applyOperations(userId, operations);
+
+        assertEquals(expected, result);
+        assertEquals(Set.of(cartItem), shoppingCart.getCartItems());
+        assertEquals(4, cartItem.getQuantity());
+        verify(shoppingCartRepository).save(shoppingCart);
+    }
+
+    @Test
+    @DisplayName("Returns the changed item with the cart version without loading the cart")
+    void updateItemQuantityDelta_returnsChangedItemOnly() {
+        final Long userId = 1L;
+        Long cartItemId = 77L;
+        CartItem cartItem = new CartItem();
+        cartItem.setId(cartItemId);
+        cartItem.setQuantity(2);
+        UpdateCartItemDto updateCartItemDto = new UpdateCartItemDto();
+        updateCartItemDto.setQuantity(7);
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setId(cartItemId);
+        cartItemDto.setQuantity(7);
+
+        when(cartItemRepository.findByIdAndShoppingCartId(cartItemId, userId))
+                .thenReturn(Optional.of(cartItem));
+        when(cartItemMapper.toCartItemDto(cartItem)).thenReturn(cartItemDto);
+        when(shoppingCartRepository.findVersionById(userId)).thenReturn(Optional.of(4L));
+        when(cartItemRepository.countByShoppingCartId(userId)).thenReturn(3L);
+
+        CartDeltaDto result = shoppingCartService
+                .updateItemQuantityDelta(userId, cartItemId, updateCartItemDto);
+
+        assertEquals(new CartDeltaDto(cartItemDto, 4L, 3L), result);
+        assertEquals(7, cartItem.getQuantity());
+        verify(shoppingCartRepository).incrementVersion(userId);
+        verify(shoppingCartRepository, never()).findByUserId(userId);
+    }
 }
@@ -0,0 +1,48 @@
+package mate.academy.intro.service.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest(properties = "book.archive.min-age=1d")
+@Sql(scripts = "classpath:database/archive/add-deleted-books.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/archive/delete-archived-books.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class SoftDeleteArchiverTest {
+    @Autowired
+    private SoftDeleteArchiver softDeleteArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void archive_oldUnreferencedBooks_movesThemToArchive() {
+        final double movedBefore = movedBooks();
+
+        softDeleteArchiver.archive();
+
+        assertEquals(List.of(2L, 3L),
+                jdbcTemplate.queryForList("SELECT id FROM books ORDER BY id", Long.class));
+        assertEquals(List.of(1L),
+                jdbcTemplate.queryForList("SELECT id FROM books_archive", Long.class));
+        assertEquals(List.of(1L), jdbcTemplate.queryForList(
+                "SELECT category_id FROM books_categories_archive WHERE book_id = 1", Long.class));
+        assertEquals(1, movedBooks() - movedBefore);
+        assertEquals(0, meterRegistry.get("book_store.archive.lag")
+                .tag("table", "books").gauge().value());
+    }
+
+    private double movedBooks() {
+        return meterRegistry.get("book_store.archive.rows").tag("table", "books").counter().count();
+    }
+}
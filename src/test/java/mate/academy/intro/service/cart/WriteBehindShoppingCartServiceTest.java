@@ -0,0 +1,212 @@
+package mate.academy.intro.service.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import mate.academy.intro.dto.BookDto;
+import mate.academy.intro.dto.CartItemRequestDto;
+import mate.academy.intro.dto.ShoppingCartDto;
+import mate.academy.intro.mapper.ShoppingCartMapper;
+import mate.academy.intro.model.CartItem;
+import mate.academy.intro.model.ShoppingCart;
+import mate.academy.intro.repository.EntityIdAllocator;
+import mate.academy.intro.repository.ShoppingCartRepository;
+import mate.academy.intro.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindShoppingCartServiceTest {
+    private static final Long USER_ID = 2L;
+    private static final Long OTHER_USER_ID = 3L;
+    private static final Long BOOK_ID = 7L;
+    private static final int MAX_ATTEMPTS = 3;
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private ShoppingCartMapper shoppingCartMapper;
+    @Mock
+    private BookService bookService;
+    @Mock
+    private EntityIdAllocator entityIdAllocator;
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindShoppingCartService shoppingCartService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        shoppingCartService = new WriteBehindShoppingCartService(shoppingCartRepository,
+                shoppingCartMapper, bookService, entityIdAllocator, jdbcTemplate,
+                transactionManager, meterRegistry, 200, MAX_ATTEMPTS, Duration.ofMinutes(30));
+        stubCart(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Serves repeated cart mutations from memory without writing")
+    void addItemToCart_sameBookTwice_mergesInMemory() {
+        stubBook();
+
+        shoppingCartService.addItemToCart(USER_ID, request(2));
+        shoppingCartService.addItemToCart(USER_ID, request(3));
+        ShoppingCartDto actual = shoppingCartService.getCartByUser(USER_ID);
+
+        assertEquals(1, actual.getCartItems().size());
+        assertEquals(5, actual.getCartItems().iterator().next().getQuantity());
+        verify(shoppingCartRepository, times(1)).findByUserId(USER_ID);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    @DisplayName("Flushes dirty carts once in a batch and records the batch size")
+    void flush_dirtyCart_writesBatchOnce() {
+        stubBook();
+        stubVersionUpdate();
+        shoppingCartService.addItemToCart(USER_ID, request(2));
+
+        shoppingCartService.flush();
+        shoppingCartService.flush();
+
+        verify(jdbcTemplate, times(1)).update(anyString(), anyMap());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"),
+                argThat((SqlParameterSource[] items) -> items.length == 1
+                        && BOOK_ID.equals(items[0].getValue("bookId"))
+                        && Integer.valueOf(2).equals(items[0].getValue("quantity"))));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE shopping_carts"),
+                argThat((SqlParameterSource[] versions) -> versions.length == 1
+                        && Long.valueOf(1).equals(versions[0].getValue("version"))
+                        && Long.valueOf(0).equals(versions[0].getValue("expectedVersion"))));
+        assertEquals(1, meterRegistry.get("book_store.cart.flush.batch").summary().count());
+        assertEquals(1, meterRegistry.get("book_store.cart.flush.lag").timer().count());
+    }
+
+    @Test
+    @DisplayName("Writes pending changes and drops the cached cart on checkout flush")
+    void flushCart_dirtyCart_writesAndReloadsFromDatabase() {
+        stubBook();
+        stubVersionUpdate();
+        shoppingCartService.addItemToCart(USER_ID, request(1));
+
+        shoppingCartService.flushCart(USER_ID);
+        shoppingCartService.getCartByUser(USER_ID);
+        shoppingCartService.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"),
+                any(SqlParameterSource[].class));
+        verify(shoppingCartRepository, times(2)).findByUserId(eq(USER_ID));
+    }
+
+    @Test
+    @DisplayName("Drops a cart reloaded during checkout instead of restoring bought items")
+    void flush_cartVersionMovedByCheckout_skipsItemsAndReloads() {
+        stubBook();
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE shopping_carts"),
+                any(SqlParameterSource[].class))).thenReturn(new int[]{1}, new int[]{0});
+        shoppingCartService.addItemToCart(USER_ID, request(1));
+        shoppingCartService.flushCart(USER_ID);
+
+        shoppingCartService.addItemToCart(USER_ID, request(2));
+        shoppingCartService.flush();
+        shoppingCartService.getCartByUser(USER_ID);
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"),
+                any(SqlParameterSource[].class));
+        verify(jdbcTemplate, times(1)).update(anyString(), anyMap());
+        verify(shoppingCartRepository, times(3)).findByUserId(USER_ID);
+        assertEquals(1, meterRegistry.get("book_store.cart.flush.conflicts").counter().count());
+    }
+
+    @Test
+    @DisplayName("Writes healthy carts when another cart fails and drops it after retries")
+    void flush_oneCartFails_isolatesFailureAndBoundsRetries() {
+        stubBook();
+        stubCart(OTHER_USER_ID);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE shopping_carts"),
+                any(SqlParameterSource[].class))).thenAnswer(invocation -> {
+                    int[] updated = new int[invocation.<SqlParameterSource[]>getArgument(1)
+                            .length];
+                    Arrays.fill(updated, 1);
+                    return updated;
+                });
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), argThat(
+                (SqlParameterSource[] items) -> Arrays.stream(items).anyMatch(item ->
+                        OTHER_USER_ID.equals(item.getValue("cartId"))))))
+                .thenThrow(new DataIntegrityViolationException("fk_cart_items_book"));
+        shoppingCartService.addItemToCart(USER_ID, request(1));
+        shoppingCartService.addItemToCart(OTHER_USER_ID, request(1));
+
+        for (int i = 0; i <= MAX_ATTEMPTS; i++) {
+            shoppingCartService.flush();
+        }
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"), argThat(
+                (SqlParameterSource[] items) -> items.length == 1
+                        && USER_ID.equals(items[0].getValue("cartId"))));
+        verify(jdbcTemplate, times(MAX_ATTEMPTS + 1)).batchUpdate(startsWith("INSERT"),
+                argThat((SqlParameterSource[] items) -> Arrays.stream(items).anyMatch(item ->
+                        OTHER_USER_ID.equals(item.getValue("cartId")))));
+        assertEquals(MAX_ATTEMPTS,
+                meterRegistry.get("book_store.cart.flush.failures").counter().count());
+        assertEquals(1, meterRegistry.get("book_store.cart.flush.dropped").counter().count());
+        assertEquals(0, meterRegistry.get("book_store.cart.dirty").gauge().value());
+    }
+
+    private void stubVersionUpdate() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE shopping_carts"),
+                any(SqlParameterSource[].class))).thenReturn(new int[]{1});
+    }
+
+    private void stubCart(Long userId) {
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setVersion(0L);
+        ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
+        shoppingCartDto.setId(userId);
+        shoppingCartDto.setUserId(userId);
+        shoppingCartDto.setCartItems(new HashSet<>());
+        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.of(shoppingCart));
+        when(shoppingCartMapper.toShoppingCartDto(shoppingCart)).thenReturn(shoppingCartDto);
+    }
+
+    private void stubBook() {
+        BookDto book = new BookDto();
+        book.setId(BOOK_ID);
+        book.setTitle("Dune");
+        when(bookService.getBookById(BOOK_ID)).thenReturn(book);
+        List<Long> ids = LongStream.rangeClosed(1, 50).boxed().toList();
+        when(entityIdAllocator.allocate(CartItem.class, 50)).thenReturn(ids);
+    }
+
+    private CartItemRequestDto request(int quantity) {
+        CartItemRequestDto requestDto = new CartItemRequestDto();
+        requestDto.setBookId(BOOK_ID);
+        requestDto.setQuantity(quantity);
+        return requestDto;
+    }
+}
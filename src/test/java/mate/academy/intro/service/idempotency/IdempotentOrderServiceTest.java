@@ -0,0 +1,161 @@
+package mate.academy.intro.service.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import mate.academy.intro.dto.OrderRequestDto;
+import mate.academy.intro.dto.OrderResponseDto;
+import mate.academy.intro.exception.InvalidIdempotencyKeyException;
+import mate.academy.intro.service.OrderService;
+import mate.academy.intro.service.ShoppingCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentOrderServiceTest {
+    private static final Long USER_ID = 1L;
+    private static final String KEY = "b7c1e2";
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private ShoppingCartService shoppingCartService;
+    @Mock
+    private IdempotencyKeyStore idempotencyKeyStore;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private IdempotentOrderService idempotentOrderService;
+    private OrderRequestDto requestDto;
+
+    @BeforeEach
+    void setUp() {
+        when(idempotencyKeyStore.getTtl()).thenReturn(Duration.ofHours(24));
+        idempotentOrderService = new IdempotentOrderService(orderService,
+                shoppingCartService, idempotencyKeyStore, transactionManager, 100);
+        requestDto = new OrderRequestDto();
+        requestDto.setShippingAddress("Kyiv");
+    }
+
+    @Test
+    @DisplayName("Serves a repeated key from memory without placing another order")
+    void placeOrder_repeatedKey_returnsCachedResponse() {
+        OrderResponseDto response = response(10L);
+        when(orderService.placeOrder(requestDto, USER_ID)).thenReturn(response);
+
+        OrderResponseDto first = idempotentOrderService.placeOrder(requestDto, USER_ID, KEY);
+        OrderResponseDto second = idempotentOrderService.placeOrder(requestDto, USER_ID, KEY);
+
+        assertSame(first, second);
+        verify(orderService, times(1)).placeOrder(requestDto, USER_ID);
+        verify(idempotencyKeyStore).save(USER_ID, KEY, response);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Flushes the cart before opening the order transaction")
+    void placeOrder_flushesCartBeforeTransaction() {
+        when(orderService.placeOrder(requestDto, USER_ID)).thenReturn(response(14L));
+
+        idempotentOrderService.placeOrder(requestDto, USER_ID, KEY);
+
+        InOrder inOrder = inOrder(shoppingCartService, transactionManager, orderService);
+        inOrder.verify(shoppingCartService).flushCart(USER_ID);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(orderService).placeOrder(requestDto, USER_ID);
+    }
+
+    @Test
+    @DisplayName("Returns the stored response without placing an order when the key is known")
+    void placeOrder_storedKey_returnsStoredResponse() {
+        OrderResponseDto stored = response(13L);
+        when(idempotencyKeyStore.find(USER_ID, KEY)).thenReturn(Optional.of(stored));
+
+        assertSame(stored, idempotentOrderService.placeOrder(requestDto, USER_ID, KEY));
+        verify(orderService, never()).placeOrder(any(), any());
+        verify(idempotencyKeyStore, never()).save(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Blocks a concurrent duplicate on the first request's result")
+    void placeOrder_concurrentDuplicate_waitsForFirstRequest() throws Exception {
+        OrderResponseDto response = response(11L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(requestDto, USER_ID)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<OrderResponseDto> first = executor.submit(() ->
+                    idempotentOrderService.placeOrder(requestDto, USER_ID, KEY));
+            started.await(5, TimeUnit.SECONDS);
+            final Future<OrderResponseDto> second = executor.submit(() ->
+                    idempotentOrderService.placeOrder(requestDto, USER_ID, KEY));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(response, first.get(5, TimeUnit.SECONDS));
+            assertSame(response, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(orderService, times(1)).placeOrder(any(), any());
+    }
+
+    @Test
+    @DisplayName("Returns the stored response when another node saved the key first")
+    void placeOrder_duplicateKeyInsert_returnsStoredResponse() {
+        OrderResponseDto stored = response(12L);
+        OrderResponseDto placed = response(20L);
+        when(orderService.placeOrder(requestDto, USER_ID)).thenReturn(placed);
+        when(idempotencyKeyStore.find(USER_ID, KEY))
+                .thenReturn(Optional.empty(), Optional.of(stored));
+        doThrow(new DuplicateKeyException("idempotency_keys"))
+                .when(idempotencyKeyStore).save(USER_ID, KEY, placed);
+
+        OrderResponseDto actual = idempotentOrderService.placeOrder(requestDto, USER_ID, KEY);
+
+        assertEquals(12L, actual.getId());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Rejects blank and oversized keys")
+    void placeOrder_invalidKey_throwsException() {
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotentOrderService.placeOrder(requestDto, USER_ID, " "));
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotentOrderService.placeOrder(requestDto, USER_ID, "k".repeat(256)));
+        verify(orderService, never()).placeOrder(any(), any());
+    }
+
+    private OrderResponseDto response(Long id) {
+        OrderResponseDto response = new OrderResponseDto();
+        response.setId(id);
+        return response;
+    }
+}
@@ -0,0 +1,18 @@
+INSERT INTO users (id, email, password, first_name, last_name, is_deleted)
+VALUES (1, 'test@email', 'password', 'John', 'Doe', 0);
+
+INSERT INTO categories (id, name, description) VALUES (1, 'Programming', 'Books about programming');
+
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted, deleted_at)
+VALUES
+(1, 'Effective Java', 'Joshua Bloch', '9780134685991', 799, 'Best Java practices', 'effective-java.jpg', 1, '2020-01-01 00:00:00'),
+(2, 'Clean Code', 'Robert Martin', '9780132350884', 599, 'Clean code practices', 'clean-code.jpg', 1, '2020-01-01 00:00:00'),
+(3, 'Refactoring', 'Martin Fowler', '9780134757599', 699, 'Improving design', 'refactoring.jpg', 1, CURRENT_TIMESTAMP);
+
+INSERT INTO books_categories (book_id, category_id) VALUES (1, 1);
+
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (1, 1, 'NEW', 599, '2020-01-01 00:00:00', 'Kyiv', 0);
+
+INSERT INTO order_items (id, order_id, book_id, quantity, price, is_deleted)
+VALUES (1, 1, 2, 1, 599, 0);
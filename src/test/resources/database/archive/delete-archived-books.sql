@@ -0,0 +1,8 @@
+DELETE FROM order_items;
+DELETE FROM orders;
+DELETE FROM books_categories;
+DELETE FROM books_categories_archive;
+DELETE FROM books;
+DELETE FROM books_archive;
+DELETE FROM categories;
+DELETE FROM users;
@@ -0,0 +1,9 @@
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted) VALUES
+(1, 'Java', 'Author One', '9780000000011', 30, null, null, false),
+(2, 'Clean Code', 'Author Two', '9780000000012', 20, null, null, false),
+(3, 'Java', 'Author Three', '9780000000013', 20, null, null, false),
+(4, 'Algorithms', 'Author Four', '9780000000014', 30, null, null, false),
+(5, 'Clean Code', 'Author Five', '9780000000015', 45, null, null, false),
+(6, 'Java', 'Author Six', '9780000000016', 10, null, null, false),
+(7, 'Refactoring', 'Author Seven', '9780000000017', 20, null, null, false),
+(8, 'Clean Code', 'Author Eight', '9780000000018', 20, null, null, true);
\ No newline at end of file
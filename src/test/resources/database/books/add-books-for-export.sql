@@ -0,0 +1,3 @@
+INSERT INTO books (id, title, author, isbn, price, description, cover_image)
+SELECT X, CONCAT('Book ', X), 'Export Author', CONCAT('isbn-', X), 10, null, null
+FROM SYSTEM_RANGE(1, 1201);
\ No newline at end of file
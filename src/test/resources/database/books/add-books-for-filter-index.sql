@@ -0,0 +1,29 @@
+INSERT INTO categories (id, name, description)
+VALUES
+(1, 'Programming', 'Books about programming'),
+(2, 'Java', 'Java-specific books'),
+(3, 'Design', 'Software design books');
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted) VALUES
+(1, 'Effective Java', 'Joshua Bloch', '9780134685991', 45.00, null, null, false),
+(2, 'Java Puzzlers', 'Joshua Bloch', '9780321336781', 19.99, null, null, false),
+(3, 'Clean Code', 'Robert Martin', '9780132350884', 20.00, null, null, false),
+(4, 'Clean Architecture', 'robert martin', '9780134494166', 20, null, null, false),
+(5, 'Refactoring', 'Martin Fowler', '9780134757599', 10, null, null, false),
+(6, 'Domain-Driven Design', 'Eric Evans', '9780321125217', 9.99, null, null, false),
+(7, 'Java Concurrency in Practice', 'Brian Goetz', '9780321349606', 25.50, null, null, false),
+(8, 'The Pragmatic Programmer', 'Andrew Hunt', '9780135957059', 100, null, null, false),
+(9, 'Head First Java', 'Kathy Sierra', '9780596009205', 30, null, null, true),
+(10, 'Patterns of Enterprise Application Architecture', 'Martin Fowler', '9780321127426', 55, null, null, false);
+INSERT INTO books_categories (book_id, category_id)
+VALUES
+(1, 1),
+(1, 2),
+(2, 2),
+(3, 1),
+(3, 3),
+(4, 3),
+(5, 1),
+(6, 3),
+(7, 2),
+(9, 2),
+(10, 3);
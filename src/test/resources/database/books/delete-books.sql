@@ -1,3 +1,4 @@
+DELETE FROM idempotency_keys;
 DELETE FROM users_roles;
 DELETE FROM cart_items;
 DELETE FROM shopping_carts;
@@ -0,0 +1,6 @@
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted)
+SELECT X + 1, CONCAT('Book ', X + 1), 'Author', CONCAT('isbn-', X + 1), 10, 'Description', 'cover.jpg', 0
+FROM SYSTEM_RANGE(1, 39);
+
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity, is_deleted)
+SELECT X, 1, X, 2, 0 FROM SYSTEM_RANGE(1, 40);